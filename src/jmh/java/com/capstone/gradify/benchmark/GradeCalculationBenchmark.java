@@ -0,0 +1,65 @@
+package com.capstone.gradify.benchmark;
+
+import com.capstone.gradify.Entity.records.GradeRecordsEntity;
+import com.capstone.gradify.Service.academic.CompiledGradingScheme;
+import com.capstone.gradify.Service.academic.RecordsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Weighted grade calculation for every student of a class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GradeCalculationBenchmark {
+
+    @Param({"30", "300", "3000"})
+    public int students;
+
+    @Param({"3", "6", "12"})
+    public int categories;
+
+    private SyntheticClass syntheticClass;
+    private CompiledGradingScheme compiledScheme;
+    private RecordsService recordsService;
+
+    @Setup
+    public void setUp() {
+        syntheticClass = new SyntheticClass(1, students, categories);
+        compiledScheme = CompiledGradingScheme.compile(1, syntheticClass.schemeJson);
+        // calculateGrade is pure; none of the collaborators are touched
+        recordsService = new RecordsService(null, null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public void compiledScheme(Blackhole blackhole) {
+        for (GradeRecordsEntity record : syntheticClass.records) {
+            blackhole.consume(recordsService.calculateGrade(
+                    record.getGrades(), compiledScheme, record.getClassRecord().getAssessmentMaxValues()));
+        }
+    }
+
+    @Benchmark
+    public void schemeJson(Blackhole blackhole) {
+        for (GradeRecordsEntity record : syntheticClass.records) {
+            blackhole.consume(recordsService.calculateGrade(
+                    record.getGrades(), syntheticClass.schemeJson, record.getClassRecord().getAssessmentMaxValues()));
+        }
+    }
+}
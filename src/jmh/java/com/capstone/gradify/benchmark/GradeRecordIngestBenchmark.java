@@ -0,0 +1,225 @@
+package com.capstone.gradify.benchmark;
+
+import com.capstone.gradify.Entity.records.ClassEntity;
+import com.capstone.gradify.Entity.records.GradeRecordsEntity;
+import com.capstone.gradify.Entity.user.Role;
+import com.capstone.gradify.Entity.user.TeacherEntity;
+import com.capstone.gradify.Repository.records.ClassRepository;
+import com.capstone.gradify.Repository.records.ClassSpreadsheetRepository;
+import com.capstone.gradify.Repository.records.ComputedGradeStateRepository;
+import com.capstone.gradify.Repository.records.GradeRecordRepository;
+import com.capstone.gradify.Repository.report.ReportRepository;
+import com.capstone.gradify.Repository.user.StudentRepository;
+import com.capstone.gradify.Repository.user.TeacherRepository;
+import com.capstone.gradify.Service.academic.GradesChangedEvent;
+import com.capstone.gradify.Service.spreadsheet.ClassSpreadsheetService;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One sheet saved through {@link ClassSpreadsheetService#saveRecord(String, TeacherEntity, List, ClassEntity, Map)},
+ * reported as grade rows/s in the {@code rows} counter.
+ * <p>
+ * Runs against a throwaway PostgreSQL container (Docker required) through a real Hibernate
+ * EntityManagerFactory configured from the application's {@code spring.jpa.properties.*} and
+ * Hikari data source properties, so JDBC batching, ordered inserts, batch rewriting and the pooled
+ * grade record sequence are the ones production uses. The service is wrapped in the same
+ * annotation-driven transaction proxy as in the application. With {@code existingStudents=false}
+ * every ingest also creates the placeholder student accounts; with {@code true} the roster is
+ * already known and only the spreadsheet and its grade records are inserted.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GradeRecordIngestBenchmark {
+
+    private static final String JPA_PREFIX = "spring.jpa.properties.";
+    private static final String DATA_SOURCE_PREFIX = "spring.datasource.hikari.data-source-properties.";
+
+    @Param({"500", "3000"})
+    public int students;
+
+    @Param({"false", "true"})
+    public boolean existingStudents;
+
+    private PostgreSQLContainer<?> postgres;
+    private HikariDataSource dataSource;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private ClassSpreadsheetService classSpreadsheetService;
+    private TeacherEntity teacher;
+    private ClassEntity classEntity;
+    private List<Map<String, String>> rows;
+    private Map<String, Integer> maxValues;
+    private List<Map<String, String>> sheet;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Properties application = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl());
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        for (String name : application.stringPropertyNames()) {
+            if (name.startsWith(DATA_SOURCE_PREFIX)) {
+                dataSource.addDataSourceProperty(name.substring(DATA_SOURCE_PREFIX.length()), application.getProperty(name));
+            }
+        }
+
+        Map<String, Object> jpaProperties = new HashMap<>();
+        for (String name : application.stringPropertyNames()) {
+            if (name.startsWith(JPA_PREFIX)) {
+                jpaProperties.put(name.substring(JPA_PREFIX.length()), application.getProperty(name).trim());
+            }
+        }
+        jpaProperties.put("hibernate.hbm2ddl.auto", application.getProperty("spring.jpa.hibernate.ddl-auto", "update"));
+        // Spring Boot's naming, which the native queries rely on
+        jpaProperties.put("hibernate.physical_naming_strategy",
+                "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy");
+        jpaProperties.put("hibernate.implicit_naming_strategy",
+                "org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy");
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.capstone.gradify.Entity");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(jpaProperties);
+        entityManagerFactoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        JpaRepositoryFactory repositories = new JpaRepositoryFactory(entityManager);
+        ComputedGradeStateRepository computedGradeStateRepository = repositories.getRepository(ComputedGradeStateRepository.class);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+
+        ClassSpreadsheetService target = new ClassSpreadsheetService(
+                repositories.getRepository(ClassSpreadsheetRepository.class),
+                repositories.getRepository(StudentRepository.class),
+                repositories.getRepository(GradeRecordRepository.class),
+                repositories.getRepository(ClassRepository.class),
+                // The staleness mark the application's listener writes in the same transaction
+                event -> {
+                    if (event instanceof GradesChangedEvent changed) {
+                        computedGradeStateRepository.markGradesChanged(changed.getClassId());
+                    }
+                },
+                entityManager,
+                repositories.getRepository(ReportRepository.class));
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        classSpreadsheetService = (ClassSpreadsheetService) proxyFactory.getProxy();
+
+        TeacherRepository teacherRepository = repositories.getRepository(TeacherRepository.class);
+        ClassRepository classRepository = repositories.getRepository(ClassRepository.class);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            TeacherEntity benchTeacher = new TeacherEntity();
+            benchTeacher.setFirstName("Bench");
+            benchTeacher.setLastName("Teacher");
+            benchTeacher.setEmail("bench.teacher@temp.edu");
+            benchTeacher.setRole(Role.TEACHER);
+            benchTeacher.setActive(true);
+            benchTeacher.setCreatedAt(new Date());
+            teacher = teacherRepository.save(benchTeacher);
+
+            ClassEntity benchClass = new ClassEntity();
+            benchClass.setClassName("Benchmark Class");
+            benchClass.setTeacher(teacher);
+            benchClass.setCreatedAt(new Date());
+            classEntity = classRepository.save(benchClass);
+        });
+
+        SyntheticClass syntheticClass = new SyntheticClass(1, students, 6);
+        maxValues = syntheticClass.spreadsheet.getAssessmentMaxValues();
+        rows = new ArrayList<>(students);
+        for (GradeRecordsEntity record : syntheticClass.records) {
+            rows.add(record.getGrades());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clear() throws SQLException {
+        // Fresh copies each time: the service keeps the row maps as the records' grades
+        sheet = new ArrayList<>(rows.size());
+        for (Map<String, String> row : rows) {
+            sheet.add(new HashMap<>(row));
+        }
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE grade_records, class_spreadsheets CASCADE");
+            if (!existingStudents) {
+                statement.execute("DELETE FROM students");
+                statement.execute("DELETE FROM users WHERE role = 'STUDENT'");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManagerFactoryBean.destroy();
+        dataSource.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public void ingestSheet(RowCounter counter) {
+        classSpreadsheetService.saveRecord("bench.xlsx", teacher, sheet, classEntity, new HashMap<>(maxValues));
+        counter.rows += students;
+    }
+}
@@ -0,0 +1,114 @@
+package com.capstone.gradify.benchmark;
+
+import com.capstone.gradify.Repository.records.ComputedGradeRepository;
+import com.capstone.gradify.Repository.records.ComputedGradeStateRepository;
+import com.capstone.gradify.Repository.records.GradeRecordRepository;
+import com.capstone.gradify.Service.academic.ClassAnalyticsExecutor;
+import com.capstone.gradify.Service.academic.ClassService;
+import com.capstone.gradify.Service.academic.CompiledGradingScheme;
+import com.capstone.gradify.Service.academic.GradeComputationMetrics;
+import com.capstone.gradify.Service.academic.GradingSchemeService;
+import com.capstone.gradify.Service.academic.RecordsService;
+import com.capstone.gradify.dto.response.StudentTableData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Live roster build and teacher grade distribution for one class, with the repositories stubbed
+ * so only the in-memory work is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RosterBenchmark {
+
+    private static final int CLASS_ID = 1;
+    private static final int TEACHER_ID = 1;
+
+    @Param({"30", "300", "3000"})
+    public int students;
+
+    @Param({"3", "6", "12"})
+    public int categories;
+
+    private ClassAnalyticsExecutor classAnalyticsExecutor;
+    private RecordsService recordsService;
+
+    @Setup
+    public void setUp() {
+        SyntheticClass syntheticClass = new SyntheticClass(CLASS_ID, students, categories);
+
+        // Stub-only mocks don't record invocations, so they don't grow across iterations
+        GradeRecordRepository gradeRecordRepository = mock(GradeRecordRepository.class, withSettings().stubOnly());
+        ComputedGradeRepository computedGradeRepository = mock(ComputedGradeRepository.class, withSettings().stubOnly());
+        GradingSchemeService gradingSchemeService = mock(GradingSchemeService.class, withSettings().stubOnly());
+        ClassService classService = mock(ClassService.class, withSettings().stubOnly());
+        ComputedGradeStateRepository computedGradeStateRepository =
+                mock(ComputedGradeStateRepository.class, withSettings().stubOnly());
+
+        GradeRecordRepository.ClassCount recordCount = new GradeRecordRepository.ClassCount() {
+            @Override
+            public Integer getClassId() {
+                return CLASS_ID;
+            }
+
+            @Override
+            public Long getTotal() {
+                return (long) students;
+            }
+        };
+
+        when(gradeRecordRepository.findRosterByClassId(CLASS_ID)).thenReturn(syntheticClass.records);
+        when(gradeRecordRepository.countByClassIds(anyCollection())).thenReturn(List.of(recordCount));
+        // No materialized grades, so both paths compute every student live
+        when(computedGradeRepository.findByClassIdWithStudent(CLASS_ID)).thenReturn(List.of());
+        when(computedGradeRepository.countGradeBucketsByClassIds(anyCollection())).thenReturn(List.of());
+        when(gradingSchemeService.getCompiledGradingScheme(CLASS_ID))
+                .thenReturn(CompiledGradingScheme.compile(1, syntheticClass.schemeJson));
+        when(classService.getClassesByTeacherId(TEACHER_ID)).thenReturn(List.of(syntheticClass.classEntity));
+
+        classAnalyticsExecutor = new ClassAnalyticsExecutor(1, false);
+        recordsService = new RecordsService(gradeRecordRepository, gradingSchemeService, classService,
+                computedGradeRepository, computedGradeStateRepository, classAnalyticsExecutor,
+                new GradeComputationMetrics(new SimpleMeterRegistry(), Set.of(), 1.0));
+    }
+
+    @TearDown
+    public void tearDown() {
+        classAnalyticsExecutor.shutdown();
+    }
+
+    @Benchmark
+    public List<StudentTableData> roster() {
+        return recordsService.getClassRosterTableData(CLASS_ID);
+    }
+
+    @Benchmark
+    public Map<String, Integer> teacherDistribution() {
+        return recordsService.getTeacherGradeDistribution(TEACHER_ID);
+    }
+}
@@ -0,0 +1,137 @@
+package com.capstone.gradify.benchmark;
+
+import com.capstone.gradify.Entity.records.GradeRecordsEntity;
+import com.capstone.gradify.Service.spreadsheet.ClassSpreadsheetService;
+import com.capstone.gradify.Service.spreadsheet.ParsedSpreadsheet;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing the same class record as .xlsx (POI streaming reader) and as CSV (delimited fast path),
+ * through {@link ClassSpreadsheetService#parseSpreadsheet(Path)} so format sniffing is included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpreadsheetParseBenchmark {
+
+    private static final List<String> NAME_HEADERS = List.of("Student Number", "First Name", "Last Name");
+
+    @Param({"300", "3000"})
+    public int students;
+
+    @Param({"xlsx", "csv"})
+    public String format;
+
+    private ClassSpreadsheetService classSpreadsheetService;
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        SyntheticClass syntheticClass = new SyntheticClass(1, students, 12);
+        Map<String, Integer> maxValues = syntheticClass.spreadsheet.getAssessmentMaxValues();
+        List<String> headers = new ArrayList<>(NAME_HEADERS);
+        headers.addAll(maxValues.keySet());
+
+        file = Files.createTempFile("parse-benchmark-", "." + format);
+        if ("csv".equals(format)) {
+            writeCsv(headers, maxValues, syntheticClass.records);
+        } else {
+            writeXlsx(headers, maxValues, syntheticClass.records);
+        }
+
+        // Parsing only needs the header validation, none of the repositories
+        classSpreadsheetService = new ClassSpreadsheetService(null, null, null, null, null, null, null);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public ParsedSpreadsheet parse() throws IOException {
+        return classSpreadsheetService.parseSpreadsheet(file);
+    }
+
+    private void writeCsv(List<String> headers, Map<String, Integer> maxValues, List<GradeRecordsEntity> records) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(String.join(",", headers));
+            writer.write("\r\n");
+            List<String> maxRow = new ArrayList<>();
+            for (String header : headers) {
+                Integer max = maxValues.get(header);
+                maxRow.add(max != null ? String.valueOf(max) : "");
+            }
+            writer.write(String.join(",", maxRow));
+            writer.write("\r\n");
+            for (GradeRecordsEntity record : records) {
+                List<String> row = new ArrayList<>(headers.size());
+                for (String header : headers) {
+                    row.add(record.getGrades().getOrDefault(header, ""));
+                }
+                writer.write(String.join(",", row));
+                writer.write("\r\n");
+            }
+        }
+    }
+
+    private void writeXlsx(List<String> headers, Map<String, Integer> maxValues, List<GradeRecordsEntity> records) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("Grades");
+            Row headerRow = sheet.createRow(0);
+            Row maxRow = sheet.createRow(1);
+            for (int i = 0; i < headers.size(); i++) {
+                headerRow.createCell(i).setCellValue(headers.get(i));
+                Integer max = maxValues.get(headers.get(i));
+                if (max != null) {
+                    maxRow.createCell(i).setCellValue(max);
+                }
+            }
+            for (int r = 0; r < records.size(); r++) {
+                Row row = sheet.createRow(r + 2);
+                Map<String, String> grades = records.get(r).getGrades();
+                for (int i = 0; i < headers.size(); i++) {
+                    String value = grades.get(headers.get(i));
+                    if (value == null) {
+                        continue;
+                    }
+                    // Scores as numeric cells, like a teacher-typed sheet
+                    if (i >= NAME_HEADERS.size() && value.chars().allMatch(Character::isDigit)) {
+                        row.createCell(i).setCellValue(Double.parseDouble(value));
+                    } else {
+                        row.createCell(i).setCellValue(value);
+                    }
+                }
+            }
+            workbook.write(out);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.capstone.gradify.benchmark;
+
+import com.capstone.gradify.Entity.records.ClassEntity;
+import com.capstone.gradify.Entity.records.ClassSpreadsheet;
+import com.capstone.gradify.Entity.records.GradeRecordsEntity;
+import com.capstone.gradify.Entity.user.StudentEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic class: a spreadsheet with mixed header naming styles, a grading scheme
+ * with the requested number of categories and one grade record per student.
+ */
+final class SyntheticClass {
+
+    /**
+     * Scheme categories with the spreadsheet columns that feed them, using the different header
+     * styles teachers upload (short codes, spelled out names, numbered with and without spaces).
+     */
+    private static final String[][] CATEGORIES = {
+            {"Quizzes", "Q1", "Q2", "Quiz 3", "qz4", "Quiz5"},
+            {"Final Exam", "Final Exam"},
+            {"Assignments", "A1", "HW2", "Activity 3", "Assignment 4"},
+            {"Midterm Exam", "ME"},
+            {"Projects", "Project 1", "P2"},
+            {"Participation", "Class Participation"},
+            {"Labs", "L1", "Lab 2", "Laboratory 3"},
+            {"Prelim Exam", "Prelim"},
+            {"Recitation", "R1", "Recitation 2"},
+            {"Essays", "Essay 1", "Writing 2"},
+            {"Case Study", "CS1", "Case 2"},
+            {"Presentations", "Presentation 1", "Report 2"},
+    };
+
+    private static final int[] MAX_VALUES = {10, 20, 25, 50, 100};
+
+    final ClassEntity classEntity;
+    final ClassSpreadsheet spreadsheet;
+    final String schemeJson;
+    final List<GradeRecordsEntity> records;
+
+    SyntheticClass(int classId, int students, int categories) {
+        if (categories < 1 || categories > CATEGORIES.length) {
+            throw new IllegalArgumentException("Categories must be between 1 and " + CATEGORIES.length);
+        }
+        Random random = new Random(42L * classId + students);
+
+        classEntity = new ClassEntity();
+        classEntity.setClassId(classId);
+
+        Map<String, Integer> maxValues = new LinkedHashMap<>();
+        StringBuilder scheme = new StringBuilder("[");
+        double weight = 100.0 / categories;
+        for (int c = 0; c < categories; c++) {
+            String[] category = CATEGORIES[c];
+            for (int i = 1; i < category.length; i++) {
+                maxValues.put(category[i], MAX_VALUES[random.nextInt(MAX_VALUES.length)]);
+            }
+            if (c > 0) scheme.append(',');
+            scheme.append("{\"name\":\"").append(category[0]).append("\",\"weight\":").append(weight).append('}');
+        }
+        schemeJson = scheme.append(']').toString();
+
+        spreadsheet = new ClassSpreadsheet();
+        spreadsheet.setId((long) classId);
+        spreadsheet.setClassEntity(classEntity);
+        spreadsheet.setAssessmentMaxValues(maxValues);
+
+        records = new ArrayList<>(students);
+        for (int s = 0; s < students; s++) {
+            String studentNumber = String.format("%d-%05d", classId, s);
+
+            StudentEntity student = new StudentEntity();
+            student.setUserId(classId * 100_000 + s);
+            student.setFirstName("First" + s);
+            student.setLastName("Last" + s);
+            student.setStudentNumber(studentNumber);
+
+            Map<String, String> grades = new HashMap<>();
+            grades.put("Student Number", studentNumber);
+            grades.put("First Name", student.getFirstName());
+            grades.put("Last Name", student.getLastName());
+            for (Map.Entry<String, Integer> column : maxValues.entrySet()) {
+                int roll = random.nextInt(100);
+                if (roll < 5) {
+                    continue; // Missing grade
+                }
+                if (roll < 7) {
+                    grades.put(column.getKey(), "absent");
+                    continue;
+                }
+                // Mostly passing scores with a tail of failing ones
+                double ratio = Math.min(1.0, 0.45 + random.nextDouble() * 0.6);
+                grades.put(column.getKey(), String.valueOf(Math.round(ratio * column.getValue())));
+            }
+
+            GradeRecordsEntity record = new GradeRecordsEntity();
+            record.setId((long) s);
+            record.setStudentNumber(studentNumber);
+            record.setStudent(student);
+            record.setClassRecord(spreadsheet);
+            record.setGrades(grades);
+            records.add(record);
+        }
+    }
+}
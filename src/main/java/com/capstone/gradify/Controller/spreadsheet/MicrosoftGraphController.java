@@ -10,6 +10,7 @@ import com.capstone.gradify.Entity.user.UserToken;
 import com.capstone.gradify.Repository.records.ClassSpreadsheetRepository;
 import com.capstone.gradify.Repository.subscription.OneDriveSubscriptionRepository;
 import com.capstone.gradify.Repository.user.TeacherRepository;
+import com.capstone.gradify.Service.spreadsheet.GraphNotificationQueue;
 import com.capstone.gradify.Service.spreadsheet.MicrosoftExcelIntegration;
 import com.capstone.gradify.Service.subscription.TrackedFilesService;
 import com.capstone.gradify.Service.userservice.UserService;
@@ -49,6 +50,7 @@ public class MicrosoftGraphController {
     private final ObjectMapper objectMapper;
     private final ClassSpreadsheetRepository classSpreadsheetRepository;
     private final UserService userService;
+    private final GraphNotificationQueue graphNotificationQueue;
 
     @GetMapping("/drive/root")
     public ResponseEntity<?> getUserRootFiles(@RequestParam int userId) {
@@ -287,7 +289,8 @@ public class MicrosoftGraphController {
                 logger.info("Resource: {}", notification.getResource());
                 logger.info("Expiration: {}", notification.getSubscriptionExpirationDateTime());
 
-                microsoftExcelIntegration.processNotificationAsync(notification);
+                // Bursts for the same file are merged and synced once per debounce window
+                graphNotificationQueue.submit(notification);
             }
 
             return ResponseEntity.ok("OK");
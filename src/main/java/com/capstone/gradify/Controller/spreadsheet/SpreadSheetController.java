@@ -9,19 +9,25 @@ import com.capstone.gradify.Repository.records.ClassSpreadsheetRepository; // En
 import com.capstone.gradify.Repository.user.TeacherRepository;
 import com.capstone.gradify.Service.spreadsheet.ClassSpreadsheetService;
 import com.capstone.gradify.Service.spreadsheet.CloudSpreadsheetManager;
+import com.capstone.gradify.Service.spreadsheet.ParsedSpreadsheet;
+import com.capstone.gradify.Service.spreadsheet.SpreadsheetIngestJob;
+import com.capstone.gradify.Service.spreadsheet.SpreadsheetIngestService;
 import com.capstone.gradify.dto.response.ClassDetailResponse;
 import com.capstone.gradify.dto.response.ErrorResponse;
 import com.capstone.gradify.mapper.ClassMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/spreadsheet")
@@ -34,53 +40,50 @@ public class SpreadSheetController {
     private final CloudSpreadsheetManager cloudSpreadsheetManager;
     private final ClassSpreadsheetRepository classSpreadsheetRepository; // Added for check-exists
     private final ClassMapper classMapper;
+    private final SpreadsheetIngestService spreadsheetIngestService;
 
     @PostMapping("/upload")
-    public ResponseEntity<?> uploadSpreadsheet(@RequestParam("file") MultipartFile file, @RequestParam("teacherId") Integer teacherId) throws IOException {
-        // Logic to handle spreadsheet upload
-
-        List<Map<String, String>> records = classSpreadsheetService.parseClassRecord(file);
-        Map<String, Integer> maxAssessmentValue = classSpreadsheetService.getMaxAssessmentValue(file);
-
-        classSpreadsheetService.preValidateAllRecords(records, maxAssessmentValue);
-
+    public ResponseEntity<?> uploadSpreadsheet(@RequestParam("file") MultipartFile file,
+                                               @RequestParam("teacherId") Integer teacherId,
+                                               @RequestParam(value = "async", defaultValue = "true") boolean async) throws IOException {
         TeacherEntity teacher = teacherRepository.findById(teacherId)
                 .orElseThrow(() -> new RuntimeException("Teacher not found"));
 
-        ClassEntity classEntity = classSpreadsheetService.createClassEntityFromSpreadsheet(file, records, teacher);
-
-        // Save the ClassEntity
-        classEntity = classRepository.save(classEntity);
-        ClassSpreadsheet savedSpreadsheet = classSpreadsheetService.saveRecord(
-                file.getOriginalFilename(),
-                teacher,
-                records,
-                classEntity,
-                maxAssessmentValue);
-
-        Set<StudentEntity> students = new HashSet<>();
-        savedSpreadsheet.getGradeRecords().forEach(record -> {
-            if (record.getStudent() != null) {
-                students.add(record.getStudent());
-            }
-        });
-
-
-        classEntity.setStudents(students);
-        classEntity = classRepository.save(classEntity);
+        // Identical files return the stored spreadsheet; changed ones are applied as a diff update
+        SpreadsheetIngestService.IngestResult result;
+        try {
+            result = spreadsheetIngestService.upload(file, teacher, async);
+        } catch (RejectedExecutionException e) {
+            return ingestBusy();
+        }
+        if (result.outcome() == SpreadsheetIngestService.Outcome.QUEUED) {
+            // Parsing, validation and persistence run as a job; poll /jobs/{id} for progress
+            return jobAccepted(result.job());
+        }
 
         Map<String, Object> response = new HashMap<>();
-        response.put("spreadsheet", savedSpreadsheet);
-        response.put("class", classEntity);
+        response.put("spreadsheet", result.spreadsheet());
+        response.put("class", result.classEntity());
+        response.put("outcome", result.outcome());
 
         return ResponseEntity.ok(response);
 
     }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getIngestJob(@PathVariable("jobId") String jobId) {
+        return spreadsheetIngestService.getJob(jobId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ErrorResponse("JOB_NOT_FOUND", "No ingest job with id " + jobId)));
+    }
+
     @GetMapping("/parse")
     public ResponseEntity<?> parseSpreadsheet(@RequestParam("file") MultipartFile file) {
         try {
-            List<Map<String, String>> records = classSpreadsheetService.parseClassRecord(file);
-            Map<String, Integer> maxAssessmentValue = classSpreadsheetService.getMaxAssessmentValue(file);
+            ParsedSpreadsheet parsed = classSpreadsheetService.parseSpreadsheet(file);
+            List<Map<String, String>> records = parsed.getRecords();
+            Map<String, Integer> maxAssessmentValue = parsed.getMaxAssessmentValues();
 
             // Pre-validate records
             classSpreadsheetService.preValidateAllRecords(records, maxAssessmentValue);
@@ -100,19 +103,25 @@ public class SpreadSheetController {
     public ResponseEntity<?> updateSpreadsheet(
             @PathVariable("classId") Integer classId,
             @RequestParam("file") MultipartFile file,
-            @RequestParam("teacherId") Integer teacherId) {
+            @RequestParam("teacherId") Integer teacherId,
+            @RequestParam(value = "async", defaultValue = "true") boolean async) {
 
         try {
             // Get the teacher
             TeacherEntity teacher = teacherRepository.findById(teacherId)
                     .orElseThrow(() -> new RuntimeException("Teacher not found"));
             List<ClassSpreadsheet> spreadsheet = classSpreadsheetService.getClassSpreadSheetByClassId(classId);
-            // Update the spreadsheet using the existing service method
-            ClassSpreadsheet updatedSpreadsheet = classSpreadsheetService.updateSpreadsheet(
-                    spreadsheet.get(0).getId(),
-                    file,
-                    teacher
-            );
+
+            SpreadsheetIngestService.IngestResult result;
+            try {
+                result = spreadsheetIngestService.update(file, spreadsheet.get(0).getId(), async);
+            } catch (RejectedExecutionException e) {
+                return ingestBusy();
+            }
+            if (result.outcome() == SpreadsheetIngestService.Outcome.QUEUED) {
+                return jobAccepted(result.job());
+            }
+            ClassSpreadsheet updatedSpreadsheet = result.spreadsheet();
 
             // Create response
             ClassDetailResponse response = classMapper.toClassDetailResponse(updatedSpreadsheet);
@@ -235,4 +244,16 @@ public class SpreadSheetController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(false);
         }
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<SpreadsheetIngestJob> jobAccepted(SpreadsheetIngestJob job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/spreadsheet/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    private ResponseEntity<ErrorResponse> ingestBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(new ErrorResponse("INGEST_BUSY", "Too many spreadsheets are being processed. Please try again shortly."));
+    }
+}
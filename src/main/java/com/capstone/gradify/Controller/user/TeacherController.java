@@ -13,6 +13,7 @@ import com.capstone.gradify.dto.request.UpdateClassDetails;
 import com.capstone.gradify.dto.response.ClassResponse;
 import com.capstone.gradify.dto.response.StudentDetails;
 import com.capstone.gradify.dto.response.TeacherAssessmentPerformance;
+import com.capstone.gradify.dto.response.TeacherDashboardResponse;
 import com.capstone.gradify.mapper.ClassMapper;
 import com.capstone.gradify.mapper.StudentMapper;
 import lombok.RequiredArgsConstructor;
@@ -144,6 +145,18 @@ public class TeacherController {
             return ResponseEntity.ok(List.of());
         }
     }
+
+    @GetMapping("/{teacherId}/dashboard")
+    public ResponseEntity<?> getTeacherDashboard(@PathVariable int teacherId) {
+        try {
+            TeacherDashboardResponse dashboard = recordsService.getTeacherDashboard(teacherId);
+            return ResponseEntity.ok(dashboard);
+        } catch (Exception e) {
+            log.error("Error building dashboard for teacher {}: {}", teacherId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error retrieving dashboard: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{classId}/ai/analytics")
     public ResponseEntity<?> getClassAIAnalytics(@PathVariable int classId) {
         try {
@@ -2,6 +2,7 @@ package com.capstone.gradify.Entity.records;
 
 import com.capstone.gradify.Entity.user.TeacherEntity;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -9,6 +10,7 @@ import lombok.Setter;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +40,20 @@ public class ClassSpreadsheet {
     private String sharedLink;
     private String dataHash;
     private Boolean isGoogleSheets = false;
+
+    // Adaptive polling state for Google-linked sheets: when the sheet is checked next, when its
+    // content last changed and how many checks in a row found no change
+    @JsonIgnore
+    private Instant nextPollAt;
+    @JsonIgnore
+    private Instant lastChangedAt;
+    @JsonIgnore
+    private Integer unchangedPolls;
+    // Drive modifiedTime/revision of the linked sheet when it was last downloaded; the sheet is only
+    // downloaded again once this changes
+    @JsonIgnore
+    private String sourceRevision;
+
     @ManyToOne
     @JoinColumn(name = "userId")
     @JsonBackReference
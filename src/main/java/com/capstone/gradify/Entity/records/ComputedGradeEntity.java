@@ -0,0 +1,40 @@
+package com.capstone.gradify.Entity.records;
+
+import com.capstone.gradify.Entity.user.StudentEntity;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Materialized weighted grade of one grade record, refreshed whenever a class's grades or
+ * grading scheme change so dashboards don't recompute from the raw jsonb grades on every read.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "computed_grades", indexes = {
+        @Index(name = "idx_computed_grades_class", columnList = "class_id"),
+        @Index(name = "idx_computed_grades_student", columnList = "student_user_id")
+})
+public class ComputedGradeEntity {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @Column(name = "class_id", nullable = false)
+    private int classId;
+
+    private String studentNumber;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnore
+    private StudentEntity student;
+
+    private double percentage;
+    private String letterGrade;
+    private String status;
+    private Date computedAt;
+}
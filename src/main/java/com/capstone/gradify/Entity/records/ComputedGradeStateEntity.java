@@ -0,0 +1,26 @@
+package com.capstone.gradify.Entity.records;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Whether a class's computed grades are current. Every change to the class's grades or grading
+ * scheme bumps {@code gradesVersion} in the same transaction; a successful refresh records the
+ * version it computed. A class whose versions differ is stale until the next refresh succeeds.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "computed_grade_state")
+public class ComputedGradeStateEntity {
+    @Id
+    @Column(name = "class_id")
+    private int classId;
+
+    @Column(name = "grades_version", nullable = false)
+    private long gradesVersion;
+
+    @Column(name = "computed_version")
+    private Long computedVersion;
+}
@@ -1,7 +1,9 @@
 package com.capstone.gradify.Entity.records;
 
 import com.capstone.gradify.Entity.user.StudentEntity;
+import com.capstone.gradify.Service.academic.GradeVector;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -15,8 +17,10 @@ import java.util.Map;
 @Getter
 @Table(name = "grade_records")
 public class GradeRecordsEntity {
+    // Pooled sequence ids (the sequence Hibernate created by default) let a whole sheet insert in JDBC batches
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "grade_records_seq")
+    @SequenceGenerator(name = "grade_records_seq", sequenceName = "grade_records_entity_seq", allocationSize = 50)
     private Long id;
 
     private String studentNumber;
@@ -33,4 +37,14 @@ public class GradeRecordsEntity {
     @Column(columnDefinition = "jsonb")
     private Map<String, String> grades;
 
+    // Content fingerprint of grades, so syncs can spot unchanged rows without comparing the jsonb
+    @JsonIgnore
+    @Column(length = 32)
+    private String rowHash;
+
+    // Grades parsed for computation, built once per loaded record (see GradeVector.of(GradeRecordsEntity))
+    @Transient
+    @JsonIgnore
+    private GradeVector gradeVector;
+
 }
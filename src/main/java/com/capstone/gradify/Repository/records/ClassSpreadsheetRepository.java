@@ -4,11 +4,14 @@ import com.capstone.gradify.Entity.records.ClassEntity;
 import com.capstone.gradify.Entity.records.ClassSpreadsheet;
 import com.capstone.gradify.Entity.user.TeacherEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -19,6 +22,7 @@ public interface ClassSpreadsheetRepository extends JpaRepository<ClassSpreadshe
     List<ClassSpreadsheet> findByClassEntity(ClassEntity classEntity);
     List<ClassSpreadsheet> findByFileName(String fileName);
     List<ClassSpreadsheet> findByUploadedBy_UserIdAndFileName(int userId, String fileName);
+    List<ClassSpreadsheet> findByUploadedBy_UserIdAndDataHash(int userId, String dataHash);
     List<ClassSpreadsheet> findByClassEntity_ClassId(Integer classId);
     List<ClassSpreadsheet> findByUploadedBy_UserId(int userId);
     List<ClassSpreadsheet> findByItemIdIsNotNull();
@@ -27,4 +31,21 @@ public interface ClassSpreadsheetRepository extends JpaRepository<ClassSpreadshe
     List<ClassSpreadsheet> findByUploadedBy_UserIdAndItemIdIsNotNull(Integer userId);
     @Query("SELECT cs FROM ClassSpreadsheet cs LEFT JOIN FETCH cs.gradeRecords WHERE cs.id = :id")
     Optional<ClassSpreadsheet> findByIdWithGradeRecords(@Param("id") Long id);
+
+    @Query("SELECT cs FROM ClassSpreadsheet cs WHERE cs.isGoogleSheets = true AND cs.sharedLink IS NOT NULL " +
+            "AND (cs.nextPollAt IS NULL OR cs.nextPollAt <= :now)")
+    List<ClassSpreadsheet> findGoogleSheetsDueForPoll(@Param("now") Instant now);
+
+    // Writes only the polling columns, without merging the spreadsheet's grade records
+    @Modifying
+    @Transactional
+    @Query("UPDATE ClassSpreadsheet cs SET cs.nextPollAt = :nextPollAt, cs.lastChangedAt = :lastChangedAt, " +
+            "cs.unchangedPolls = :unchangedPolls WHERE cs.id = :id")
+    void updatePollSchedule(@Param("id") Long id, @Param("nextPollAt") Instant nextPollAt,
+                            @Param("lastChangedAt") Instant lastChangedAt, @Param("unchangedPolls") int unchangedPolls);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ClassSpreadsheet cs SET cs.sourceRevision = :sourceRevision WHERE cs.id = :id")
+    void updateSourceRevision(@Param("id") Long id, @Param("sourceRevision") String sourceRevision);
 }
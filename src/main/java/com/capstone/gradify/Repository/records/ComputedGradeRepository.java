@@ -0,0 +1,58 @@
+package com.capstone.gradify.Repository.records;
+
+import com.capstone.gradify.Entity.records.ComputedGradeEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ComputedGradeRepository extends JpaRepository<ComputedGradeEntity, Long> {
+    @Query("SELECT cg FROM ComputedGradeEntity cg LEFT JOIN FETCH cg.student WHERE cg.classId = :classId")
+    List<ComputedGradeEntity> findByClassIdWithStudent(@Param("classId") int classId);
+
+    List<ComputedGradeEntity> findByClassId(int classId);
+    List<ComputedGradeEntity> findByStudent_UserId(int studentId);
+    long countByClassId(int classId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ComputedGradeEntity cg WHERE cg.classId = :classId")
+    int deleteByClassId(@Param("classId") int classId);
+
+    // Classes that have grade records but nothing materialized yet
+    @Query("SELECT DISTINCT cs.classEntity.classId FROM ClassSpreadsheet cs " +
+            "WHERE cs.classEntity IS NOT NULL AND EXISTS (SELECT 1 FROM GradeRecordsEntity gr WHERE gr.classRecord = cs) " +
+            "AND NOT EXISTS (SELECT 1 FROM ComputedGradeEntity cg WHERE cg.classId = cs.classEntity.classId)")
+    List<Integer> findClassIdsMissingComputedGrades();
+
+    @Query("SELECT AVG(cg.percentage) FROM ComputedGradeEntity cg WHERE cg.classId = :classId")
+    Double averagePercentageByClassId(@Param("classId") int classId);
+
+    // Letter grade counts per class; width_bucket maps the percentage onto the F/D/C/B/A boundaries.
+    // PostgreSQL sorts NaN above every number, so it is mapped to F explicitly, as convertToLetterGrade does
+    @Query(value = "SELECT cg.class_id AS \"classId\", " +
+            "CASE WHEN cg.letter_grade = 'N/A' THEN 'N/A' " +
+            "WHEN cg.percentage = CAST('NaN' AS double precision) THEN 'F' " +
+            "ELSE (ARRAY['F', 'D', 'C', 'B', 'A'])[width_bucket(cg.percentage, CAST(ARRAY[60, 70, 80, 90] AS double precision[])) + 1] " +
+            "END AS \"grade\", " +
+            "(cg.student_user_id IS NOT NULL) AS \"rostered\", " +
+            "COUNT(*) AS \"total\" " +
+            "FROM computed_grades cg " +
+            "WHERE cg.class_id IN (:classIds) " +
+            "GROUP BY 1, 2, 3",
+            nativeQuery = true)
+    List<GradeBucket> countGradeBucketsByClassIds(@Param("classIds") Collection<Integer> classIds);
+
+    interface GradeBucket {
+        Integer getClassId();
+        String getGrade();
+        Boolean getRostered();
+        Long getTotal();
+    }
+}
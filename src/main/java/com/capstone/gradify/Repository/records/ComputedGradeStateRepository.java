@@ -0,0 +1,39 @@
+package com.capstone.gradify.Repository.records;
+
+import com.capstone.gradify.Entity.records.ComputedGradeStateEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ComputedGradeStateRepository extends JpaRepository<ComputedGradeStateEntity, Integer> {
+    // Joins the caller's transaction, so the class is marked stale exactly when its change commits
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO computed_grade_state (class_id, grades_version) VALUES (:classId, 1) " +
+            "ON CONFLICT (class_id) DO UPDATE SET grades_version = computed_grade_state.grades_version + 1",
+            nativeQuery = true)
+    int markGradesChanged(@Param("classId") int classId);
+
+    @Query("SELECT s.gradesVersion FROM ComputedGradeStateEntity s WHERE s.classId = :classId")
+    Long findGradesVersion(@Param("classId") int classId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ComputedGradeStateEntity s SET s.computedVersion = :version WHERE s.classId = :classId")
+    int markComputed(@Param("classId") int classId, @Param("version") long version);
+
+    @Query("SELECT s.classId FROM ComputedGradeStateEntity s " +
+            "WHERE s.computedVersion IS NULL OR s.computedVersion <> s.gradesVersion")
+    List<Integer> findStaleClassIds();
+
+    @Query("SELECT s.classId FROM ComputedGradeStateEntity s WHERE s.classId IN :classIds " +
+            "AND (s.computedVersion IS NULL OR s.computedVersion <> s.gradesVersion)")
+    List<Integer> findStaleClassIdsIn(@Param("classIds") Collection<Integer> classIds);
+}
@@ -1,16 +1,67 @@
 package com.capstone.gradify.Repository.records;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.capstone.gradify.Entity.records.GradeRecordsEntity;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface GradeRecordRepository extends JpaRepository<GradeRecordsEntity, Integer> {
+    // Grade values Double.parseDouble would accept as plain decimal numbers (no '?' so it is not read as a parameter)
+    String NUMERIC_GRADE_PATTERN = "^\\s*[-+]{0,1}([0-9]+[.]{0,1}[0-9]*|[.][0-9]+)([eE][-+]{0,1}[0-9]+){0,1}\\s*$";
+
     List<GradeRecordsEntity> findByClassRecord_ClassEntity_ClassId(int classId);
     List<GradeRecordsEntity> findByStudent_UserIdAndClassRecord_ClassEntity_ClassId(int studentId, int classId);
     List<GradeRecordsEntity> findByStudent_UserId(int studentId);
     GradeRecordsEntity findByStudentNumberAndClassRecord_ClassEntity_ClassId(String studentNumber, int classId);
     List<GradeRecordsEntity> findByStudentNumber(String studentNumber);
+    long countByClassRecord_ClassEntity_ClassId(int classId);
+
+    // Grade records of a class with their spreadsheet and student loaded in the same statement
+    @Query("SELECT gr FROM GradeRecordsEntity gr " +
+            "JOIN FETCH gr.classRecord cr " +
+            "JOIN FETCH cr.classEntity c " +
+            "LEFT JOIN FETCH gr.student " +
+            "WHERE c.classId = :classId")
+    List<GradeRecordsEntity> findRosterByClassId(@Param("classId") int classId);
+
+    long countByStudent_UserId(int studentId);
+
+    @Query("SELECT cr.classEntity.classId AS classId, COUNT(gr) AS total FROM GradeRecordsEntity gr " +
+            "JOIN gr.classRecord cr WHERE cr.classEntity.classId IN :classIds GROUP BY cr.classEntity.classId")
+    List<ClassCount> countByClassIds(@Param("classIds") Collection<Integer> classIds);
+
+    @Query(value = "SELECT COUNT(DISTINCT gr.student_number) FROM grade_records gr " +
+            "JOIN class_spreadsheets cs ON cs.id = gr.class_record_id " +
+            "JOIN classes c ON c.class_id = cs.class_id " +
+            "WHERE c.teacher_id = :teacherId",
+            nativeQuery = true)
+    long countDistinctStudentNumbersByTeacherId(@Param("teacherId") int teacherId);
+
+    // Per-assessment raw averages of a spreadsheet straight from the jsonb grades
+    @Query(value = "SELECT g.key AS \"assessment\", " +
+            "AVG(CAST(g.value AS double precision)) AS \"averageScore\" " +
+            "FROM grade_records gr " +
+            "JOIN class_spreadsheets cs ON cs.id = gr.class_record_id " +
+            "CROSS JOIN LATERAL jsonb_each_text(gr.grades) AS g(key, value) " +
+            "WHERE gr.class_record_id = :spreadsheetId " +
+            "AND jsonb_exists(cs.assessment_max_values, g.key) " +
+            "AND g.value ~ '" + NUMERIC_GRADE_PATTERN + "' " +
+            "GROUP BY g.key",
+            nativeQuery = true)
+    List<AssessmentAverage> averageByAssessment(@Param("spreadsheetId") Long spreadsheetId);
+
+    interface ClassCount {
+        Integer getClassId();
+        Long getTotal();
+    }
+
+    interface AssessmentAverage {
+        String getAssessment();
+        Double getAverageScore();
+    }
 }
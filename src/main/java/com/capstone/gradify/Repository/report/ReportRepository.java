@@ -2,8 +2,12 @@ package com.capstone.gradify.Repository.report;
 
 import com.capstone.gradify.Entity.report.ReportEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -22,4 +26,9 @@ public interface ReportRepository extends JpaRepository<ReportEntity, Integer> {
     // Find reports linked to a specific grade record
     List<ReportEntity> findByGradeRecordId(Long gradeRecordId);
     void deleteByRelatedClass_ClassId(int classId);
+
+    // Unlink reports from grade records that are about to be deleted by a spreadsheet sync
+    @Modifying
+    @Query("UPDATE ReportEntity r SET r.gradeRecord = null WHERE r.gradeRecord.id IN :gradeRecordIds")
+    int detachGradeRecords(@Param("gradeRecordIds") Collection<Long> gradeRecordIds);
 }
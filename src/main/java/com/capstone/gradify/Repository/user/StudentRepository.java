@@ -4,6 +4,7 @@ import com.capstone.gradify.Entity.user.StudentEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
@@ -14,5 +15,6 @@ public interface StudentRepository extends JpaRepository<StudentEntity, Integer>
     List<StudentEntity> findByMajor(String major);
     List<StudentEntity> findByInstitution(String institution);
     Optional<StudentEntity> findByStudentNumber(String studentNumber);
+    List<StudentEntity> findByStudentNumberIn(Collection<String> studentNumbers);
     StudentEntity findByUserId(int userId);
 }
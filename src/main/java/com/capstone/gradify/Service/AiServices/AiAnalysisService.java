@@ -6,6 +6,9 @@ import com.capstone.gradify.Entity.records.ClassSpreadsheet;
 import com.capstone.gradify.Entity.records.GradeRecordsEntity;
 import com.capstone.gradify.Entity.records.GradingSchemes;
 import com.capstone.gradify.Repository.records.ClassSpreadsheetRepository;
+import com.capstone.gradify.Repository.records.GradeRecordRepository;
+import com.capstone.gradify.Service.academic.CompiledGradingScheme;
+import com.capstone.gradify.Service.academic.GradeVector;
 import com.capstone.gradify.Service.academic.GradingSchemeService;
 import com.capstone.gradify.Service.academic.RecordsService;
 import com.capstone.gradify.Service.academic.ClassService;
@@ -34,6 +37,7 @@ public class AiAnalysisService {
     private final RecordsService recordsService;
     private final GradingSchemeService gradingSchemeService;
     private final ClassSpreadsheetRepository classSpreadsheetRepository;
+    private final GradeRecordRepository gradeRecordRepository;
     private AnthropicClient client;
 
     @PostConstruct
@@ -165,13 +169,13 @@ public class AiAnalysisService {
         gradeDistribution.put("D", 0);
         gradeDistribution.put("F", 0);
 
-        // Use RecordsService's grade calculation for consistency
+        // Use RecordsService's grade calculation for consistency; each record is parsed once
+        // and the grades are kept for the per-student section of the prompt
+        CompiledGradingScheme compiledScheme = gradingSchemeService.getCompiledGradingScheme(classId);
+        List<Double> studentGrades = new ArrayList<>(gradeRecords.size());
         for (GradeRecordsEntity record : gradeRecords) {
-            double grade = recordsService.calculateGrade(
-                    record.getGrades(),
-                    gradingScheme.getGradingScheme(),
-                    maxValues
-            );
+            double grade = recordsService.calculateGrade(GradeVector.of(record), compiledScheme);
+            studentGrades.add(grade);
             // Convert grade to percentage
             double percentage = grade/100;
             // Use the same grade boundaries as RecordsService
@@ -180,13 +184,14 @@ public class AiAnalysisService {
         }
 
         // Calculate assessment averages
-        Map<String, Double> assessmentAverages = calculateAssessmentAverages(gradeRecords, maxValues);
+        Map<String, Double> assessmentAverages = calculateAssessmentAverages(classSpreadsheet, maxValues);
 
         // Gather metrics
         metrics.put("totalStudents", gradeRecords.size());
         metrics.put("assessmentAverages", assessmentAverages);
         metrics.put("overallAverage", overallAverage);
         metrics.put("gradeDistribution", gradeDistribution);
+        metrics.put("studentGrades", studentGrades);
 
         return metrics;
     }
@@ -199,42 +204,19 @@ public class AiAnalysisService {
         else return "F";
     }
 
-    private Map<String, Double> calculateAssessmentAverages(List<GradeRecordsEntity> gradeRecords,
+    private Map<String, Double> calculateAssessmentAverages(ClassSpreadsheet classSpreadsheet,
                                                             Map<String, Integer> maxValues) {
-        Map<String, List<Double>> assessmentScores = new HashMap<>();
         Map<String, Double> assessmentAverages = new HashMap<>();
 
-        // Initialize collections for all assessments
+        // Assessments without any numeric grade average to 0
         for (String assessment : maxValues.keySet()) {
-            assessmentScores.put(assessment, new ArrayList<>());
+            assessmentAverages.put(assessment, 0.0);
         }
 
-        // Collect scores for each assessment
-        for (GradeRecordsEntity record : gradeRecords) {
-            Map<String, String> grades = record.getGrades();
-            for (Map.Entry<String, String> entry : grades.entrySet()) {
-                String assessment = entry.getKey();
-                String score = entry.getValue();
-                if (score != null && !score.trim().isEmpty() && maxValues.containsKey(assessment)) {
-                    try {
-                        double numericScore = Double.parseDouble(score);
-                        assessmentScores.get(assessment).add(numericScore);
-                    } catch (NumberFormatException ignored) {
-                        // Skip non-numeric grades
-                    }
-                }
-            }
-        }
-
-        // Calculate averages
-        for (Map.Entry<String, List<Double>> entry : assessmentScores.entrySet()) {
-            String assessment = entry.getKey();
-            List<Double> scores = entry.getValue();
-            if (!scores.isEmpty()) {
-                double average = scores.stream().mapToDouble(Double::doubleValue).average().orElse(0);
-                assessmentAverages.put(assessment, average);
-            } else {
-                assessmentAverages.put(assessment, 0.0);
+        // Averages are computed in the database from the jsonb grades
+        for (GradeRecordRepository.AssessmentAverage average : gradeRecordRepository.averageByAssessment(classSpreadsheet.getId())) {
+            if (average.getAverageScore() != null) {
+                assessmentAverages.put(average.getAssessment(), average.getAverageScore());
             }
         }
 
@@ -297,13 +279,12 @@ public class AiAnalysisService {
 
         // Student data (anonymized by student number)
         sb.append("INDIVIDUAL STUDENT PERFORMANCE:\n");
-        for (GradeRecordsEntity record : gradeRecords) {
+        @SuppressWarnings("unchecked")
+        List<Double> studentGrades = (List<Double>) metrics.get("studentGrades");
+        for (int i = 0; i < gradeRecords.size(); i++) {
+            GradeRecordsEntity record = gradeRecords.get(i);
             sb.append("Student #").append(record.getStudentNumber()).append(":\n");
-            double grade = recordsService.calculateGrade(
-                    record.getGrades(),
-                    gradingScheme.getGradingScheme(),
-                    maxValues
-            );
+            double grade = studentGrades.get(i);
             sb.append("- Overall Grade: ").append(String.format("%.2f", grade)).append("%\n");
             sb.append("- Individual Scores:\n");
             for (Map.Entry<String, String> entry : record.getGrades().entrySet()) {
@@ -0,0 +1,276 @@
+package com.capstone.gradify.Service.academic;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Maps the assessment columns of a spreadsheet to grading scheme categories (Quizzes, Assignments,
+ * Midterm, ...). Classification runs once per distinct column set; computing a student's category
+ * score then only touches the columns already bucketed for that category.
+ */
+public final class AssessmentClassifier {
+
+    private static final int MAX_CACHED_CLASSIFIERS = 512;
+    private static final Map<Set<String>, AssessmentClassifier> CACHE = new ConcurrentHashMap<>();
+
+    private static final Pattern QUIZ_KEY = Pattern.compile("(q|quiz|qz|sq)\\d+");
+    private static final Pattern ASSIGNMENT_KEY = Pattern.compile(
+            "(a|assignment|assign|hw|homework|h|task|t|exercise|ex|activity|act)\\d+");
+    private static final Pattern PROJECT_KEY = Pattern.compile("(p|project|proj|gp|group|team|mini|major|mp)\\d+");
+    private static final Pattern LAB_KEY = Pattern.compile("L\\d+");
+    private static final Pattern RECITATION_KEY = Pattern.compile("R\\d+");
+    private static final Pattern CASE_STUDY_KEY = Pattern.compile("CS\\d+");
+    private static final Pattern ESSAY_KEY = Pattern.compile("E\\d+");
+
+    /**
+     * Category kinds. Averaging kinds combine every matching column; the others take the first
+     * graded column from their preferred keys, then fall back to the first partially matching column.
+     */
+    enum Kind {
+        QUIZZES(true, (key, lower) -> QUIZ_KEY.matcher(lower).matches() || lower.contains("quiz")
+                || lower.startsWith("q ") || lower.equals("q")),
+        ASSIGNMENTS(true, (key, lower) -> ASSIGNMENT_KEY.matcher(lower).matches()
+                || lower.startsWith("assign") || lower.startsWith("hw")
+                || containsAny(lower, "assignment", "homework", "task", "exercise", "activity", "work")
+                || lower.equals("a") || lower.equals("h") || lower.equals("t")),
+        PROJECTS(true, (key, lower) -> PROJECT_KEY.matcher(lower).matches() || lower.startsWith("proj")
+                || lower.contains("project") || lower.startsWith("group") || lower.startsWith("team")
+                || lower.equals("p")),
+        LABS(true, (key, lower) -> LAB_KEY.matcher(key).matches() || lower.startsWith("lab")
+                || lower.contains("laboratory")),
+        RECITATION(true, (key, lower) -> RECITATION_KEY.matcher(key).matches() || lower.startsWith("recit")
+                || lower.contains("recitation")),
+        PRESENTATIONS(true, (key, lower) -> lower.startsWith("pres") || lower.contains("presentation")
+                || lower.contains("report")),
+        CASE_STUDY(true, (key, lower) -> CASE_STUDY_KEY.matcher(key).matches() || lower.startsWith("case")
+                || lower.contains("case study")),
+        ESSAYS(true, (key, lower) -> ESSAY_KEY.matcher(key).matches() || lower.startsWith("essay")
+                || lower.startsWith("writing") || lower.contains("essay") || lower.contains("paper")),
+        PARTICIPATION(false, (key, lower) -> containsAny(lower, "participation", "attendance", "engagement",
+                "discussion", "classwork", "class work") || lower.equals("cp") || lower.equals("cw")
+                || lower.equals("disc"),
+                "Participation", "Class Participation", "CP", "Attendance", "Class Work", "Classwork", "CW",
+                "Engagement", "Class Engagement", "Active Participation", "Discussion", "Class Discussion",
+                "Disc", "Participate", "Attend", "Present", "Active", "Involve", "Interaction"),
+        PRELIM(false, (key, lower) -> containsAny(lower, "prelim", "first exam", "1st exam", "initial exam")
+                || lower.equals("pe") || lower.equals("e1"),
+                "PE", "Prelim", "Preliminary", "Prelim Exam", "Preliminary Exam", "Pre-Exam", "Pre Exam",
+                "Prelims", "First Exam", "1st Exam", "Exam 1", "Exam1", "E1", "PreE", "PrelE", "Initial Exam"),
+        PRE_FINAL(false, null,
+                "PFE", "Pre-Final", "Prefinal", "Pre-Final Exam", "Prefinal Exam"),
+        MIDTERM(false, (key, lower) -> containsAny(lower, "midterm", "mid-term", "mid term", "middle exam",
+                "second exam", "2nd exam") || lower.equals("me") || lower.equals("mt") || lower.equals("e2"),
+                "ME", "MT", "Midterm", "Midterm Exam", "Mid-Term", "Mid Term", "Mid-Term Exam", "Middle Exam",
+                "Second Exam", "2nd Exam", "Exam 2", "Exam2", "E2", "MidE", "MiddleE"),
+        FINAL(false, (key, lower) -> containsAny(lower, "final", "comprehensive", "third exam", "3rd exam",
+                "last exam") || lower.equals("fe") || lower.equals("e3") || lower.equals("comp")
+                || lower.equals("le"),
+                "FE", "Final", "Final Exam", "Finals", "Final Examination", "Comprehensive", "Comprehensive Exam",
+                "Comp", "CompE", "Third Exam", "3rd Exam", "Exam 3", "Exam3", "E3", "Last Exam", "LE", "FinalE"),
+        PRACTICUM(false, null,
+                "Practicum", "Practical", "Prac", "Hands-on", "Practice"),
+        THESIS(false, null,
+                "Thesis", "Capstone", "Thesis Defense", "Final Project", "Senior Project"),
+        ORAL(false, null,
+                "OE", "Oral", "Oral Exam", "Oral Examination", "Viva", "Defense");
+
+        private final boolean averaged;
+        private final BiPredicate<String, String> matcher;
+        private final String[] preferredKeys;
+
+        Kind(boolean averaged, BiPredicate<String, String> matcher, String... preferredKeys) {
+            this.averaged = averaged;
+            this.matcher = matcher;
+            this.preferredKeys = preferredKeys;
+        }
+
+        boolean matches(String key, String lowerKey) {
+            return matcher != null && matcher.test(key, lowerKey);
+        }
+    }
+
+    private static final Map<String, Kind> KIND_BY_CATEGORY = new HashMap<>();
+
+    static {
+        register(Kind.QUIZZES, "Quizzes", "Quiz", "Quizes", "Short Quiz", "Pop Quiz", "Weekly Quiz");
+        register(Kind.ASSIGNMENTS, "Assignments", "Assignment", "Homework", "Homeworks", "Task", "Tasks",
+                "Exercise", "Exercises", "Activity", "Activities");
+        register(Kind.PROJECTS, "Projects", "Project", "Group Project", "Group Projects", "Individual Project",
+                "Team Project", "Mini Project", "Major Project");
+        register(Kind.PARTICIPATION, "Participation", "Class Participation", "Attendance", "Engagement",
+                "Class Work", "Classwork", "Class Engagement", "Active Participation", "Discussion",
+                "Class Discussion");
+        register(Kind.PRELIM, "Prelim Exam", "Preliminary Exam", "Prelim", "Preliminary", "Pre Exam", "Pre-Exam",
+                "Prelims", "First Exam", "1st Exam", "Exam 1");
+        register(Kind.PRE_FINAL, "Pre-Final Exam", "Prefinal Exam");
+        register(Kind.MIDTERM, "Midterm Exam", "Midterm", "Mid-Term", "Mid Term", "Middle Exam", "Second Exam",
+                "2nd Exam", "Exam 2");
+        register(Kind.FINAL, "Final Exam", "Final", "Finals", "Final Examination", "Comprehensive Exam",
+                "Comprehensive", "Third Exam", "3rd Exam", "Exam 3", "Last Exam");
+        register(Kind.LABS, "Labs", "Laboratory");
+        register(Kind.RECITATION, "Recitation", "Recitations");
+        register(Kind.PRESENTATIONS, "Presentations");
+        register(Kind.CASE_STUDY, "Case Study", "Case Studies");
+        register(Kind.ESSAYS, "Essays", "Writing");
+        register(Kind.PRACTICUM, "Practicum", "Practical");
+        register(Kind.THESIS, "Thesis", "Capstone");
+        register(Kind.ORAL, "Oral Exam", "Oral Examination");
+    }
+
+    private final List<String> columns;
+    private final Map<String, Integer> columnIndex;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private AssessmentClassifier(Collection<String> columnNames) {
+        this.columns = List.copyOf(columnNames);
+        this.columnIndex = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            columnIndex.putIfAbsent(columns.get(i), i);
+        }
+    }
+
+    /**
+     * Classifier for the assessment columns of a spreadsheet. Rows of the same spreadsheet share
+     * their header set, so the classifier is cached per distinct column set.
+     */
+    public static AssessmentClassifier forColumns(Set<String> columnNames) {
+        AssessmentClassifier cached = CACHE.get(columnNames);
+        if (cached != null) {
+            return cached;
+        }
+        if (CACHE.size() >= MAX_CACHED_CLASSIFIERS) {
+            CACHE.clear();
+        }
+        AssessmentClassifier classifier = new AssessmentClassifier(columnNames);
+        CACHE.putIfAbsent(Set.copyOf(columnNames), classifier);
+        return classifier;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Score a single category for one student as a 0-100 percentage, or a negative value when the
+     * category has no usable grade. The vector must use this classifier's column layout.
+     */
+    public double categoryScore(String category, GradeVector grades) {
+        Bucket bucket = buckets.computeIfAbsent(category, this::classify);
+
+        if (bucket.averaged) {
+            double total = 0;
+            int count = 0;
+            for (int index : bucket.columns) {
+                // Missing and non-numeric values are NaN and skipped
+                if (!Double.isNaN(grades.score(index))) {
+                    total += grades.percentage(index);
+                    count++;
+                }
+            }
+            return count > 0 ? total / count : -1;
+        }
+
+        for (int index : bucket.columns) {
+            double score = grades.score(index);
+            if (!Double.isNaN(score) && score != -1) {
+                return grades.percentage(index);
+            }
+        }
+        if (bucket.fallbackColumn >= 0) {
+            // An ungraded fallback column scores as -1 out of its max, as before
+            return Double.isNaN(grades.score(bucket.fallbackColumn))
+                    ? (-1 / grades.getColumns().maxValue(bucket.fallbackColumn)) * 100
+                    : grades.percentage(bucket.fallbackColumn);
+        }
+        return -1;
+    }
+
+    private Bucket classify(String category) {
+        String trimmed = category.trim();
+        String lowerCategory = trimmed.toLowerCase(Locale.ROOT);
+        Kind kind = KIND_BY_CATEGORY.get(lowerCategory);
+
+        if (kind == null) {
+            // Unknown category: exact (case-insensitive) column match first, then partial match
+            int exact = -1;
+            int partial = -1;
+            for (int i = 0; i < columns.size(); i++) {
+                String lowerKey = columns.get(i).toLowerCase(Locale.ROOT);
+                if (exact < 0 && lowerKey.equals(lowerCategory)) {
+                    exact = i;
+                }
+                if (partial < 0 && (lowerKey.contains(lowerCategory) || lowerCategory.contains(lowerKey))) {
+                    partial = i;
+                }
+            }
+            return new Bucket(false, new int[0], exact >= 0 ? exact : partial);
+        }
+
+        if (kind.averaged) {
+            List<Integer> matching = new ArrayList<>();
+            for (int i = 0; i < columns.size(); i++) {
+                String key = columns.get(i);
+                if (kind.matches(key, key.toLowerCase(Locale.ROOT))) {
+                    matching.add(i);
+                }
+            }
+            return new Bucket(true, toArray(matching), -1);
+        }
+
+        List<Integer> preferred = new ArrayList<>();
+        for (String key : kind.preferredKeys) {
+            Integer index = columnIndex.get(key);
+            if (index != null) {
+                preferred.add(index);
+            }
+        }
+        int fallback = -1;
+        for (int i = 0; i < columns.size() && fallback < 0; i++) {
+            String key = columns.get(i);
+            if (kind.matches(key, key.toLowerCase(Locale.ROOT))) {
+                fallback = i;
+            }
+        }
+        return new Bucket(false, toArray(preferred), fallback);
+    }
+
+    private static void register(Kind kind, String... categoryNames) {
+        for (String name : categoryNames) {
+            KIND_BY_CATEGORY.put(name.toLowerCase(Locale.ROOT), kind);
+        }
+    }
+
+    private static boolean containsAny(String value, String... parts) {
+        for (String part : parts) {
+            if (value.contains(part)) return true;
+        }
+        return false;
+    }
+
+    private static int[] toArray(List<Integer> indices) {
+        return indices.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Pre-resolved columns for one scheme category.
+     */
+    private static final class Bucket {
+        private final boolean averaged;
+        private final int[] columns;
+        private final int fallbackColumn;
+
+        private Bucket(boolean averaged, int[] columns, int fallbackColumn) {
+            this.averaged = averaged;
+            this.columns = columns;
+            this.fallbackColumn = fallbackColumn;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.capstone.gradify.Service.academic;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Runs per-class analytics work concurrently with a fixed parallelism ceiling, so a teacher with
+ * many classes doesn't compute them one after another but also can't exhaust the JDBC pool.
+ * Uses virtual threads when enabled and running on JDK 21+, otherwise a sized fork-join pool.
+ */
+@Component
+public class ClassAnalyticsExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(ClassAnalyticsExecutor.class);
+
+    private final Executor executor;
+    private final ForkJoinPool forkJoinPool;
+
+    public ClassAnalyticsExecutor(@Value("${gradify.analytics.parallelism:4}") int parallelism,
+                                  @Value("${gradify.analytics.virtual-threads:false}") boolean virtualThreads) {
+        int ceiling = Math.max(1, parallelism);
+        if (virtualThreads && Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor virtualExecutor = new SimpleAsyncTaskExecutor("analytics-");
+            virtualExecutor.setVirtualThreads(true);
+            virtualExecutor.setConcurrencyLimit(ceiling);
+            this.executor = virtualExecutor;
+            this.forkJoinPool = null;
+        } else {
+            if (virtualThreads) {
+                logger.warn("Virtual threads requested for analytics but JDK {} does not support them; using a fork-join pool",
+                        Runtime.version().feature());
+            }
+            this.forkJoinPool = new ForkJoinPool(ceiling);
+            this.executor = forkJoinPool;
+        }
+        logger.info("Class analytics parallelism set to {}", ceiling);
+    }
+
+    /**
+     * Apply the task to every item concurrently and return the results in the same order as the
+     * input, so callers can merge them deterministically.
+     */
+    public <T, R> List<R> mapInOrder(List<T> items, Function<T, R> task) {
+        List<R> results = new ArrayList<>(items.size());
+        if (items.size() <= 1) {
+            for (T item : items) {
+                results.add(task.apply(item));
+            }
+            return results;
+        }
+
+        List<CompletableFuture<R>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            futures.add(CompletableFuture.supplyAsync(() -> task.apply(item), executor));
+        }
+        for (CompletableFuture<R> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdown();
+        }
+    }
+}
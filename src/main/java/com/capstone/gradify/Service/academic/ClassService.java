@@ -11,6 +11,8 @@ import com.capstone.gradify.Entity.subscription.TrackedFiles;
 import com.capstone.gradify.Entity.user.StudentEntity;
 import com.capstone.gradify.Repository.report.ReportRepository;
 import com.capstone.gradify.Repository.records.ClassSpreadsheetRepository;
+import com.capstone.gradify.Repository.records.ComputedGradeRepository;
+import com.capstone.gradify.Repository.records.ComputedGradeStateRepository;
 import com.capstone.gradify.Repository.records.GradingSchemeRepository;
 import com.capstone.gradify.Repository.subscription.TrackedFileRepository;
 import com.capstone.gradify.Repository.user.TeacherRepository;
@@ -35,6 +37,9 @@ public class ClassService {
     private final ReportRepository reportRepository;
     private final GradingSchemeRepository gradingSchemeRepository;
     private final TrackedFileRepository trackedFileRepository;
+    private final ComputedGradeRepository computedGradeRepository;
+    private final ComputedGradeStateRepository computedGradeStateRepository;
+    private final GradingSchemeService gradingSchemeService;
 
     public ClassEntity createClass(ClassEntity classEntity) {
         return classRepository.save(classEntity);
@@ -94,11 +99,14 @@ public class ClassService {
 
                 classSpreadsheetRepository.deleteAll(spreadsheets);
             }
+            computedGradeRepository.deleteByClassId(classId);
+            computedGradeStateRepository.deleteById(classId);
 
             GradingSchemes gradingSchemes = gradingSchemeRepository.findByClassEntity_ClassId(classId);
             if(gradingSchemes != null){
                 gradingSchemeRepository.delete(gradingSchemes);
             }
+            gradingSchemeService.evictCompiledScheme(classId);
 
             classRepository.deleteById(classId);
             return "Class record successfully deleted!";
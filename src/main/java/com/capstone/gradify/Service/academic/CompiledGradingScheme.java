@@ -0,0 +1,111 @@
+package com.capstone.gradify.Service.academic;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, pre-parsed form of a grading scheme JSON definition.
+ * Parsing happens once; the categories and their weights are then reused for every student.
+ */
+public final class CompiledGradingScheme {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final int schemeId;
+    private final List<Category> categories;
+    private final double totalWeight;
+
+    private CompiledGradingScheme(int schemeId, List<Category> categories, double totalWeight) {
+        this.schemeId = schemeId;
+        this.categories = categories;
+        this.totalWeight = totalWeight;
+    }
+
+    /**
+     * Parse a grading scheme JSON array of {@code {"name": ..., "weight": ...}} items.
+     * Items without a numeric weight are skipped, matching the previous per-record behaviour.
+     */
+    public static CompiledGradingScheme compile(int schemeId, String schemeJson) {
+        try {
+            List<Map<String, Object>> schemeItems = MAPPER.readValue(
+                    schemeJson, new TypeReference<List<Map<String, Object>>>() {});
+
+            List<Category> categories = new ArrayList<>(schemeItems.size());
+            double totalWeight = 0.0;
+
+            for (Map<String, Object> schemeItem : schemeItems) {
+                Object nameObj = schemeItem.get("name");
+                Object weightObj = schemeItem.get("weight");
+                if (nameObj == null || weightObj == null) continue;
+
+                double weight;
+                try {
+                    weight = Double.parseDouble(weightObj.toString());
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+
+                totalWeight += weight;
+                categories.add(new Category(nameObj.toString().trim(), weight));
+            }
+            return new CompiledGradingScheme(schemeId, Collections.unmodifiableList(categories), totalWeight);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error parsing grading scheme: " + e.getMessage(), e);
+        }
+    }
+
+    public static CompiledGradingScheme compile(String schemeJson) {
+        return compile(0, schemeJson);
+    }
+
+    /**
+     * ID of the grading scheme row this was compiled from; 0 for ad hoc schemes.
+     */
+    public int getSchemeId() {
+        return schemeId;
+    }
+
+    public List<Category> getCategories() {
+        return categories;
+    }
+
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Turn a weighted sum into the final 0-100 percentage, normalising when weights are below 100.
+     */
+    public double normalize(double weightedTotal) {
+        if (totalWeight > 0 && totalWeight <= 100) {
+            return weightedTotal / (totalWeight / 100.0);
+        } else if (totalWeight == 0) {
+            return 0.0;
+        }
+        // Weights above 100 indicate a misconfigured scheme; keep the raw weighted total
+        return weightedTotal;
+    }
+
+    public static final class Category {
+        private final String name;
+        private final double weight;
+
+        Category(String name, double weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+    }
+}
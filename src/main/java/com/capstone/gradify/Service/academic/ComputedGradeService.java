@@ -0,0 +1,114 @@
+package com.capstone.gradify.Service.academic;
+
+import com.capstone.gradify.Entity.records.ComputedGradeEntity;
+import com.capstone.gradify.Entity.records.GradeRecordsEntity;
+import com.capstone.gradify.Repository.records.ComputedGradeRepository;
+import com.capstone.gradify.Repository.records.ComputedGradeStateRepository;
+import com.capstone.gradify.Repository.records.GradeRecordRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the computed_grades table in sync with grade records and grading schemes.
+ */
+@Service
+@RequiredArgsConstructor
+public class ComputedGradeService {
+    private static final Logger logger = LoggerFactory.getLogger(ComputedGradeService.class);
+    private final ComputedGradeRepository computedGradeRepository;
+    private final ComputedGradeStateRepository computedGradeStateRepository;
+    private final GradeRecordRepository gradeRecordRepository;
+    private final GradingSchemeService gradingSchemeService;
+    private final RecordsService recordsService;
+    private final GradeComputationMetrics gradeComputationMetrics;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Mark the class's computed grades stale as part of the change itself, before the refresh below.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onGradesChanging(GradesChangedEvent event) {
+        computedGradeStateRepository.markGradesChanged(event.getClassId());
+    }
+
+    /**
+     * Recompute every student's grade for a class once the change that triggered it has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onGradesChanged(GradesChangedEvent event) {
+        try {
+            refreshClass(event.getClassId());
+        } catch (Exception e) {
+            // The refresh rolled back, so the class stays stale and the rebuild job retries it
+            logger.error("Failed to refresh computed grades for class {}: {}", event.getClassId(), e.getMessage(), e);
+        }
+    }
+
+    @Transactional
+    public int refreshClass(int classId) {
+        // The version this refresh brings the class up to; a change committed meanwhile keeps it stale
+        Long gradesVersion = computedGradeStateRepository.findGradesVersion(classId);
+        List<GradeRecordsEntity> records = gradeRecordRepository.findRosterByClassId(classId);
+        CompiledGradingScheme gradingScheme = gradingSchemeService.getCompiledGradingScheme(classId);
+
+        if (gradingScheme == null) {
+            gradeComputationMetrics.schemeMissing();
+        }
+
+        List<ComputedGradeEntity> computedGrades = gradeComputationMetrics.timeClass("refresh", () -> {
+            List<ComputedGradeEntity> grades = new ArrayList<>(records.size());
+            for (GradeRecordsEntity record : records) {
+                grades.add(recordsService.computeGrade(classId, record, gradingScheme));
+            }
+            return grades;
+        });
+        gradeComputationMetrics.recordsProcessed(records.size());
+
+        computedGradeRepository.deleteByClassId(classId);
+        computedGradeRepository.saveAll(computedGrades);
+        if (gradesVersion != null) {
+            computedGradeStateRepository.markComputed(classId, gradesVersion);
+        }
+        logger.debug("Refreshed {} computed grades for class {}", computedGrades.size(), classId);
+        return computedGrades.size();
+    }
+
+    /**
+     * Backfill classes that have grade records but no computed grades (data uploaded before
+     * computed grades existed) and refresh classes left stale by a failed refresh.
+     */
+    @Scheduled(initialDelay = 60000, fixedDelay = 3600000) // One minute after startup, then hourly
+    public void rebuildMissingComputedGrades() {
+        Set<Integer> classIds = new LinkedHashSet<>(computedGradeRepository.findClassIdsMissingComputedGrades());
+        classIds.addAll(computedGradeStateRepository.findStaleClassIds());
+        if (classIds.isEmpty()) {
+            return;
+        }
+        logger.info("Rebuilding computed grades for {} classes", classIds.size());
+        for (Integer classId : classIds) {
+            try {
+                // A self-call bypasses the @Transactional proxy; keep the delete and insert in one transaction
+                transactionTemplate.executeWithoutResult(status -> refreshClass(classId));
+            } catch (Exception e) {
+                logger.error("Failed to rebuild computed grades for class {}: {}", classId, e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.capstone.gradify.Service.academic;
+
+import com.capstone.gradify.Entity.records.GradeRecordsEntity;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Primitive view of one student's grades: a {@code double[]} of scores aligned with a column
+ * layout shared by every record of the same spreadsheet, with NaN for missing or non-numeric
+ * values. Each grade string is parsed once when the vector is built instead of on every pass.
+ */
+public final class GradeVector {
+
+    private final Columns columns;
+    private final double[] scores;
+    // What the vector was built from, so a record's cached vector can tell when it is out of date
+    private final Map<String, String> sourceGrades;
+    private final Map<String, Integer> sourceMaxValues;
+
+    private GradeVector(Columns columns, double[] scores, Map<String, String> sourceGrades,
+                        Map<String, Integer> sourceMaxValues) {
+        this.columns = columns;
+        this.scores = scores;
+        this.sourceGrades = sourceGrades;
+        this.sourceMaxValues = sourceMaxValues;
+    }
+
+    /**
+     * The vector of a loaded grade record. It is built on first use and kept on the record, so the
+     * roster, analytics and AI paths that handle the same record share one parse. It is rebuilt when
+     * the record's grades or its spreadsheet's max values are replaced.
+     */
+    public static GradeVector of(GradeRecordsEntity record) {
+        Map<String, Integer> maxValues = record.getClassRecord() != null
+                ? record.getClassRecord().getAssessmentMaxValues() : null;
+        GradeVector cached = record.getGradeVector();
+        if (cached != null && cached.sourceGrades == record.getGrades() && cached.sourceMaxValues == maxValues) {
+            return cached;
+        }
+        GradeVector vector = of(record.getGrades(), maxValues);
+        record.setGradeVector(vector);
+        return vector;
+    }
+
+    /**
+     * Build the vector for a record. Columns come from the spreadsheet max values, or from the
+     * record's own keys (out of 100) when no max values are available.
+     */
+    public static GradeVector of(Map<String, String> grades, Map<String, Integer> assessmentMaxValues) {
+        Map<String, String> values = grades != null ? grades : Map.of();
+        Columns columns = Columns.forRecord(values, assessmentMaxValues);
+
+        double[] scores = new double[columns.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = parse(values.get(columns.names.get(i)));
+        }
+        return new GradeVector(columns, scores, grades, assessmentMaxValues);
+    }
+
+    public Columns getColumns() {
+        return columns;
+    }
+
+    /**
+     * Raw score at a column index, NaN when missing.
+     */
+    public double score(int index) {
+        return scores[index];
+    }
+
+    /**
+     * Raw score for a column name, NaN when missing or not part of the layout.
+     */
+    public double score(String column) {
+        Integer index = columns.index.get(column);
+        return index != null ? scores[index] : Double.NaN;
+    }
+
+    /**
+     * Score at a column index as a 0-100 percentage of the column's max value.
+     */
+    public double percentage(int index) {
+        return (scores[index] / columns.maxValues[index]) * 100;
+    }
+
+    private static double parse(String value) {
+        if (value == null) return Double.NaN;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Column layout of a spreadsheet: assessment names, their max values and the classifier that
+     * buckets them into grading categories. Cached per distinct set of max values, so all rows of a
+     * spreadsheet share one instance.
+     */
+    public static final class Columns {
+        private static final int MAX_CACHED_LAYOUTS = 512;
+        private static final int DEFAULT_MAX_VALUE = 100;
+        private static final Map<Map<String, Integer>, Columns> CACHE = new ConcurrentHashMap<>();
+
+        private final AssessmentClassifier classifier;
+        private final List<String> names;
+        private final Map<String, Integer> index;
+        private final double[] maxValues;
+
+        private Columns(Map<String, Integer> assessmentMaxValues) {
+            // Columns follow the classifier's order so its bucket indices address the score array directly
+            this.classifier = AssessmentClassifier.forColumns(assessmentMaxValues.keySet());
+            this.names = classifier.getColumns();
+            this.index = new HashMap<>();
+            this.maxValues = new double[names.size()];
+            for (int i = 0; i < names.size(); i++) {
+                index.putIfAbsent(names.get(i), i);
+                Integer maxValue = assessmentMaxValues.get(names.get(i));
+                maxValues[i] = maxValue != null ? maxValue : DEFAULT_MAX_VALUE;
+            }
+        }
+
+        static Columns forRecord(Map<String, String> grades, Map<String, Integer> assessmentMaxValues) {
+            if (assessmentMaxValues != null && !assessmentMaxValues.isEmpty()) {
+                return forMaxValues(assessmentMaxValues);
+            }
+            Map<String, Integer> defaults = new HashMap<>();
+            for (String key : grades.keySet()) {
+                defaults.put(key, DEFAULT_MAX_VALUE);
+            }
+            return forMaxValues(defaults);
+        }
+
+        static Columns forMaxValues(Map<String, Integer> assessmentMaxValues) {
+            Columns cached = CACHE.get(assessmentMaxValues);
+            if (cached != null) {
+                return cached;
+            }
+            if (CACHE.size() >= MAX_CACHED_LAYOUTS) {
+                CACHE.clear();
+            }
+            Map<String, Integer> key = new HashMap<>(assessmentMaxValues);
+            Columns columns = new Columns(key);
+            Columns existing = CACHE.putIfAbsent(key, columns);
+            return existing != null ? existing : columns;
+        }
+
+        public AssessmentClassifier getClassifier() {
+            return classifier;
+        }
+
+        public List<String> getNames() {
+            return names;
+        }
+
+        public int size() {
+            return names.size();
+        }
+
+        public double maxValue(int index) {
+            return maxValues[index];
+        }
+
+        public int indexOf(String column) {
+            Integer i = index.get(column);
+            return i != null ? i : -1;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.capstone.gradify.Service.academic;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when the grade records or grading scheme of a class change, so derived data
+ * such as computed grades can be refreshed once the change commits.
+ */
+@Getter
+@RequiredArgsConstructor
+public class GradesChangedEvent {
+    private final int classId;
+}
@@ -10,8 +10,12 @@ import com.capstone.gradify.Repository.user.TeacherRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Service
 @RequiredArgsConstructor
 public class GradingSchemeService {
@@ -20,6 +24,17 @@ public class GradingSchemeService {
     private final TeacherRepository teacherRepository;
     private final ClassRepository classRepository;
     private final GradeRecordRepository gradeRecordRepository; // Injected repository
+    private final ApplicationEventPublisher eventPublisher;
+    // Compiled schemes keyed by class ID, with the class's scheme version they were loaded under
+    private final Map<Integer, CachedScheme> compiledSchemes = new ConcurrentHashMap<>();
+    // Bumped by every eviction, so a load racing with a scheme change is never served again
+    private final Map<Integer, Long> schemeVersions = new ConcurrentHashMap<>();
+
+    /**
+     * A class's compiled scheme, or a null scheme when the class has none.
+     */
+    private record CachedScheme(long version, CompiledGradingScheme scheme) {
+    }
 
 
     public GradingSchemes saveGradingScheme(GradingSchemes gradingScheme, Integer classId, Integer teacherId) {
@@ -32,7 +47,10 @@ public class GradingSchemeService {
         // Associate the grading scheme with the teacher and class
         gradingScheme.setTeacherEntity(teacher);
         gradingScheme.setClassEntity(classEntity);
-        return gradingSchemeRepository.save(gradingScheme);
+        GradingSchemes savedScheme = gradingSchemeRepository.save(gradingScheme);
+        evictCompiledScheme(classId);
+        eventPublisher.publishEvent(new GradesChangedEvent(classId));
+        return savedScheme;
     }
 
     public GradingSchemes getGradingSchemeByClassEntityId(int id) {
@@ -60,9 +78,11 @@ public class GradingSchemeService {
         }
 
         GradingSchemes savedScheme = gradingSchemeRepository.save(existingScheme);
+        evictCompiledScheme(classId);
+        eventPublisher.publishEvent(new GradesChangedEvent(classId));
 
         //Fetches the number of students in the class
-        long studentCount = gradeRecordRepository.findByClassRecord_ClassEntity_ClassId(classId).size();
+        long studentCount = gradeRecordRepository.countByClassRecord_ClassEntity_ClassId(classId);
         String className = existingScheme.getClassEntity().getClassName();
 
         // New logging statements
@@ -81,4 +101,32 @@ public class GradingSchemeService {
         }
         return gradingSchemes.getGradingScheme();
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the compiled grading scheme for a class, or null if the class has no scheme.
+     * The scheme is loaded and compiled once per class and scheme version; saving, updating or
+     * deleting a scheme evicts it, so repeated lookups don't query the database.
+     */
+    public CompiledGradingScheme getCompiledGradingScheme(int classId) {
+        long version = schemeVersions.getOrDefault(classId, 0L);
+        CachedScheme cached = compiledSchemes.get(classId);
+        if (cached != null && cached.version() == version) {
+            return cached.scheme();
+        }
+        CompiledGradingScheme compiled = compile(gradingSchemeRepository.findByClassEntity_ClassId(classId));
+        compiledSchemes.put(classId, new CachedScheme(version, compiled));
+        return compiled;
+    }
+
+    private static CompiledGradingScheme compile(GradingSchemes gradingScheme) {
+        if (gradingScheme == null || gradingScheme.getGradingScheme() == null) {
+            return null;
+        }
+        return CompiledGradingScheme.compile(gradingScheme.getId(), gradingScheme.getGradingScheme());
+    }
+
+    public void evictCompiledScheme(int classId) {
+        schemeVersions.merge(classId, 1L, Long::sum);
+        compiledSchemes.remove(classId);
+    }
+}
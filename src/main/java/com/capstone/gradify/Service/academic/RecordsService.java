@@ -1,19 +1,19 @@
 package com.capstone.gradify.Service.academic;
 
 import com.capstone.gradify.Entity.records.*;
+import com.capstone.gradify.Repository.records.ComputedGradeRepository;
+import com.capstone.gradify.Repository.records.ComputedGradeStateRepository;
 import com.capstone.gradify.Repository.records.GradeRecordRepository;
-import com.capstone.gradify.Repository.user.StudentRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import com.capstone.gradify.Entity.user.StudentEntity;
 import com.capstone.gradify.dto.response.StudentTableData;
+import com.capstone.gradify.dto.response.TeacherDashboardResponse;
 import com.capstone.gradify.dto.response.TeacherAssessmentPerformance;
 import java.util.*;
+import java.util.function.DoublePredicate;
 
 
 @Service
@@ -21,68 +21,156 @@ import java.util.*;
 public class RecordsService {
     private static final Logger logger = LoggerFactory.getLogger(RecordsService.class); // Ensure logger is initialized
     private final GradeRecordRepository gradeRecordsRepository;
-    private final StudentRepository studentRepository;
     private final GradingSchemeService gradingSchemeService;
     private final ClassService classService;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final ComputedGradeRepository computedGradeRepository;
+    private final ComputedGradeStateRepository computedGradeStateRepository;
+    private final ClassAnalyticsExecutor classAnalyticsExecutor;
+    private final GradeComputationMetrics gradeComputationMetrics;
 
     public List<StudentTableData> getClassRosterTableData(int classId) {
-        logger.info("Fetching class roster for class ID: {}", classId);
-        List<GradeRecordsEntity> allRecords = gradeRecordsRepository.findByClassRecord_ClassEntity_ClassId(classId);
-        GradingSchemes gradingScheme = gradingSchemeService.getGradingSchemeByClassEntityId(classId);
+        logger.debug("Fetching class roster for class ID: {}", classId);
+        List<ComputedGradeEntity> computedGrades = getComputedGradesForClass(classId);
+        if (computedGrades != null) {
+            List<StudentTableData> tableData = new ArrayList<>();
+            for (ComputedGradeEntity computed : computedGrades) {
+                StudentEntity student = computed.getStudent();
+                if (student == null) {
+                    logger.warn("Student not found for student number: {}", computed.getStudentNumber());
+                    continue;
+                }
+                tableData.add(toStudentTableData(student, computed));
+            }
+            return tableData;
+        }
+
+        return gradeComputationMetrics.timeClass("roster", () -> computeClassRoster(classId));
+    }
+
+    private List<StudentTableData> computeClassRoster(int classId) {
+        // Records come back with their student already joined, so building the roster is a single query
+        List<GradeRecordsEntity> allRecords = gradeRecordsRepository.findRosterByClassId(classId);
+        CompiledGradingScheme gradingScheme = gradingSchemeService.getCompiledGradingScheme(classId);
 
         if (gradingScheme == null) {
+            gradeComputationMetrics.schemeMissing();
             logger.warn("No grading scheme found for class ID: {}. Grades will be N/A.", classId);
         } else {
-            logger.info("Using grading scheme for class ID: {}: {}", classId, gradingScheme.getGradingScheme());
+            logger.debug("Using grading scheme for class ID: {} with {} categories", classId, gradingScheme.getCategories().size());
         }
 
+        boolean traced = gradeComputationMetrics.isTraced(classId);
         List<StudentTableData> tableData = new ArrayList<>();
 
         for (GradeRecordsEntity record : allRecords) {
-            double percentageForDisplay = 0.0; // This will be the 0-100 scale for the Percentage column
-            String letterGradeToStore = "N/A";
-            String statusToStore = "Scheme Missing";
-
-            if (gradingScheme != null && gradingScheme.getGradingScheme() != null) {
-                percentageForDisplay = calculateGrade( // This returns 0-100
-                        record.getGrades(),
-                        gradingScheme.getGradingScheme(),
-                        record.getClassRecord().getAssessmentMaxValues()
-                );
+            ComputedGradeEntity computed = computeGrade(classId, record, gradingScheme);
+            logComputedGrade(traced, computed);
 
-                // Log the value EXACTLY before passing it to convertToLetterGrade
-                logger.info("Passing to convertToLetterGrade for {}: {}", record.getStudentNumber(), percentageForDisplay);
-                letterGradeToStore = convertToLetterGrade(percentageForDisplay); // Pass the 0-100 scale
+            StudentEntity student = record.getStudent();
 
-                statusToStore = determineStatus(percentageForDisplay);
-
-                logger.info("Calculated for {}: Percentage = {}, Letter Grade = {}, Status = {}",
-                        record.getStudentNumber(), percentageForDisplay, letterGradeToStore, statusToStore);
-            }
-
-            Optional<StudentEntity> studentOpt = studentRepository.findByStudentNumber(record.getStudentNumber());
-
-            if (studentOpt.isPresent()) {
-                StudentEntity student = studentOpt.get();
-                String studentName = student.getFirstName() + " " + student.getLastName();
-
-                StudentTableData data = new StudentTableData(
-                        studentName,
-                        record.getStudentNumber(),
-                        letterGradeToStore,
-                        percentageForDisplay, // Use the 0-100 scaled value
-                        statusToStore,
-                        student.getUserId()
-                );
-                tableData.add(data);
+            if (student != null) {
+                tableData.add(toStudentTableData(student, computed));
             } else {
                 logger.warn("Student not found for student number: {}", record.getStudentNumber());
             }
         }
-        logger.info("Finished processing class roster for class ID: {}. Total students: {}", classId, tableData.size());
+        gradeComputationMetrics.recordsProcessed(allRecords.size());
+        logger.debug("Finished processing class roster for class ID: {}. Total students: {}", classId, tableData.size());
         return tableData;
     }
+
+    /**
+     * Per-record detail is DEBUG only, or a sampled INFO trace for classes configured in
+     * {@code gradify.grades.trace.class-ids}.
+     */
+    private void logComputedGrade(boolean traced, ComputedGradeEntity computed) {
+        if (traced && gradeComputationMetrics.sampleTrace()) {
+            logger.info("Grade trace class {}: student {} percentage={} letter={} status={}", computed.getClassId(),
+                    computed.getStudentNumber(), computed.getPercentage(), computed.getLetterGrade(), computed.getStatus());
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("Calculated for {}: Percentage = {}, Letter Grade = {}, Status = {}",
+                    computed.getStudentNumber(), computed.getPercentage(), computed.getLetterGrade(), computed.getStatus());
+        }
+    }
+
+    /**
+     * Compute the weighted percentage, letter grade and status of a single grade record.
+     * Without a grading scheme the grade is reported as N/A.
+     */
+    public ComputedGradeEntity computeGrade(int classId, GradeRecordsEntity record, CompiledGradingScheme gradingScheme) {
+        return computeGrade(classId, record, toGradeVector(record), gradingScheme);
+    }
+
+    private ComputedGradeEntity computeGrade(int classId, GradeRecordsEntity record, GradeVector grades,
+                                             CompiledGradingScheme gradingScheme) {
+        ComputedGradeEntity computed = new ComputedGradeEntity();
+        computed.setClassId(classId);
+        computed.setStudentNumber(record.getStudentNumber());
+        computed.setStudent(record.getStudent());
+        computed.setComputedAt(new Date());
+
+        if (gradingScheme == null) {
+            computed.setPercentage(0.0);
+            computed.setLetterGrade("N/A");
+            computed.setStatus("Scheme Missing");
+            return computed;
+        }
+
+        double percentage = calculateGrade(grades, gradingScheme); // This returns 0-100
+        computed.setPercentage(percentage);
+        computed.setLetterGrade(convertToLetterGrade(percentage));
+        computed.setStatus(determineStatus(percentage));
+        return computed;
+    }
+
+    private GradeVector toGradeVector(GradeRecordsEntity record) {
+        return GradeVector.of(record);
+    }
+
+    private StudentTableData toStudentTableData(StudentEntity student, ComputedGradeEntity computed) {
+        return new StudentTableData(
+                student.getFirstName() + " " + student.getLastName(),
+                computed.getStudentNumber(),
+                computed.getLetterGrade(),
+                computed.getPercentage(), // 0-100 scale
+                computed.getStatus(),
+                student.getUserId()
+        );
+    }
+
+    /**
+     * Materialized grades for a class, or null when they are missing, stale (a change whose refresh
+     * has not succeeded yet) or out of step with the grade records (e.g. not yet backfilled), in
+     * which case callers compute live.
+     */
+    private List<ComputedGradeEntity> getComputedGradesForClass(int classId) {
+        List<ComputedGradeEntity> computedGrades = computedGradeRepository.findByClassIdWithStudent(classId);
+        if (computedGrades.isEmpty()
+                || computedGrades.size() != gradeRecordsRepository.countByClassRecord_ClassEntity_ClassId(classId)
+                || isStale(classId)) {
+            return null;
+        }
+        return computedGrades;
+    }
+
+    private List<ComputedGradeEntity> getComputedGradesForStudent(int studentId) {
+        List<ComputedGradeEntity> computedGrades = computedGradeRepository.findByStudent_UserId(studentId);
+        if (computedGrades.isEmpty()
+                || computedGrades.size() != gradeRecordsRepository.countByStudent_UserId(studentId)) {
+            return null;
+        }
+        Set<Integer> classIds = new HashSet<>();
+        computedGrades.forEach(computed -> classIds.add(computed.getClassId()));
+        if (!computedGradeStateRepository.findStaleClassIdsIn(classIds).isEmpty()) {
+            return null;
+        }
+        return computedGrades;
+    }
+
+    private boolean isStale(int classId) {
+        return !computedGradeStateRepository.findStaleClassIdsIn(List.of(classId)).isEmpty();
+    }
+
     /**
      * Convert numeric percentage to letter grade
      */
@@ -93,7 +181,6 @@ public class RecordsService {
         else if (percentage >= 70) grade = "C";
         else if (percentage >= 60) grade = "D";
         else grade = "F";
-        logger.info("convertToLetterGrade - Input: {}, Output: {}", percentage, grade);
         return grade;
     }
 
@@ -119,10 +206,10 @@ public class RecordsService {
         GradeRecordsEntity record = records.get(0);
 
         // Get grading scheme for this class
-        GradingSchemes gradingScheme = gradingSchemeService.getGradingSchemeByClassEntityId(classId);
+        CompiledGradingScheme gradingScheme = gradingSchemeService.getCompiledGradingScheme(classId);
 
         // Calculate the grade based on the grading scheme
-        return calculateGrade(record.getGrades(), gradingScheme.getGradingScheme(), record.getClassRecord().getAssessmentMaxValues());
+        return calculateGrade(toGradeVector(record), gradingScheme);
     }
 
     public Map<String, Double> calculateClassGrades(int classId) {
@@ -130,12 +217,12 @@ public class RecordsService {
         List<GradeRecordsEntity> allRecords = gradeRecordsRepository.findByClassRecord_ClassEntity_ClassId(classId);
 
         // Get grading scheme for this class
-        GradingSchemes gradingScheme = gradingSchemeService.getGradingSchemeByClassEntityId(classId);
+        CompiledGradingScheme gradingScheme = gradingSchemeService.getCompiledGradingScheme(classId);
 
         // Calculate grade for each student
         Map<String, Double> studentGrades = new HashMap<>();
         for (GradeRecordsEntity record : allRecords) {
-            double grade = calculateGrade(record.getGrades(), gradingScheme.getGradingScheme(), record.getClassRecord().getAssessmentMaxValues());
+            double grade = calculateGrade(toGradeVector(record), gradingScheme);
             String studentNumber = record.getStudentNumber();
             studentGrades.put(studentNumber, grade);
         }
@@ -144,460 +231,55 @@ public class RecordsService {
     }
 
     public double calculateGrade(Map<String, String> grades, String schemeJson, Map<String, Integer> assessmentMaxValues) {
-        logger.info("Calculating final grade...");
         if (schemeJson == null) { // This check is important
             return 0.0;
         }
-        try {
-            List<Map<String, Object>> schemeItems = mapper.readValue(
-                    schemeJson, new TypeReference<List<Map<String, Object>>>() {});
-
-            double totalGrade = 0.0;
-            double totalAppliedWeight = 0.0;
-
-            for (Map<String, Object> schemeItem : schemeItems) {
-                String name = (String) schemeItem.get("name");
-                // Ensure weight is present and is a number before parsing
-                Object weightObj = schemeItem.get("weight");
-                if (weightObj == null) continue; // Skip if weight is missing
-
-                double weight;
-                try {
-                    weight = Double.parseDouble(weightObj.toString());
-                } catch (NumberFormatException e) {
-                    // logger.warn("Invalid weight format for category '{}': {}", name, weightObj);
-                    continue; // Skip if weight is not a valid number
-                }
-
-                totalAppliedWeight += weight;
-                double categoryScore = getCategoryScore(grades, name, assessmentMaxValues);
-
-                if (categoryScore >= 0) {
-                    totalGrade += (categoryScore * (weight / 100.0));
-                } else {
-                    logger.info("Missing grade for '{}' found, treating as 0 in weighted calculation.", name);
-                    totalGrade += 0;
-                }
-            }
-            logger.info("Final grade computed successfully.");
-            if (totalAppliedWeight > 0 && totalAppliedWeight <= 100) { // Ensure totalAppliedWeight is reasonable
-                // If totalAppliedWeight sums to 100, this simplifies to totalGrade
-                // If it's less (e.g. some categories had no grades), this will scale appropriately.
-                return (totalGrade / (totalAppliedWeight / 100.0));
-            } else if (totalAppliedWeight == 0) {
-                return 0.0;
-            } else {
-                // If totalAppliedWeight is > 100, it implies an issue with scheme definition
-                // logger.warn("Total applied weight {} is greater than 100 for scheme: {}", totalAppliedWeight, schemeJson);
-                // Decide how to handle this: normalize to 100, or return as is, or return error indicator
-                return totalGrade; // Or (totalGrade / (totalAppliedWeight / 100.0)) if that's intended.
-            }
-
-        } catch (JsonProcessingException e) {
-            // logger.error("Error parsing grading scheme JSON: {}", schemeJson, e);
-            // It might be better to throw a custom, more specific exception or return a special value.
-            throw new RuntimeException("Error parsing grading scheme: " + e.getMessage(), e);
-        }
-    }
-
-    private double getCategoryScore(Map<String, String> grades, String category, Map<String, Integer> assessmentMaxValues) {
-        // Map category names to potential keys in the grade records
-        category = category.trim();
-        Map<String, Integer> maxValues = assessmentMaxValues != null ? assessmentMaxValues : new HashMap<>();
-
-        // Handle common category mappings with multiple variations
-        if (category.equalsIgnoreCase("Quizzes") || category.equalsIgnoreCase("Quiz") ||
-                category.equalsIgnoreCase("Quizes") || category.equalsIgnoreCase("Short Quiz") ||
-                category.equalsIgnoreCase("Pop Quiz") || category.equalsIgnoreCase("Weekly Quiz")) {
-            // Look for quiz-related keys with extensive variations
-            double total = 0;
-            int count = 0;
-
-            for (Map.Entry<String, String> entry : grades.entrySet()) {
-                String key = entry.getKey().toLowerCase();
-                if (key.matches("Q\\d+") || key.matches("q\\d+") || key.matches("quiz\\d+") || key.matches("qz\\d+") ||
-                        key.startsWith("quiz") || key.contains("quiz") || key.startsWith("q ") ||
-                        key.equals("q") || key.contains("short quiz") || key.contains("pop quiz") ||
-                        key.contains("weekly quiz") || key.contains("daily quiz") || key.matches("sq\\d+")) {
-                    try {
-                        double score = Double.parseDouble(entry.getValue());
-                        int maxValue = maxValues.getOrDefault(entry.getKey(), 100);
-                        total += (score / maxValue) * 100;
-                        count++;
-                    } catch (NumberFormatException e) {
-                        // Skip non-numeric values
-                    }
-                }
-            }
-            return count > 0 ? total / count : -1;
-
-        } else if (category.equalsIgnoreCase("Assignments") || category.equalsIgnoreCase("Assignment") ||
-                category.equalsIgnoreCase("Homework") || category.equalsIgnoreCase("Homeworks") ||
-                category.equalsIgnoreCase("Task") || category.equalsIgnoreCase("Tasks") ||
-                category.equalsIgnoreCase("Exercise") || category.equalsIgnoreCase("Exercises") ||
-                category.equalsIgnoreCase("Activity") || category.equalsIgnoreCase("Activities")) {
-            // Look for assignment-related keys with extensive variations
-            double total = 0;
-            int count = 0;
-
-            for (Map.Entry<String, String> entry : grades.entrySet()) {
-                String key = entry.getKey().toLowerCase();
-                if (key.matches("A\\d+") || key.matches("a\\d+") || key.matches("assignment\\d+") || key.matches("assign\\d+") ||
-                        key.matches("hw\\d+") || key.matches("homework\\d+") || key.matches("h\\d+") ||
-                        key.matches("task\\d+") || key.matches("t\\d+") || key.matches("exercise\\d+") ||
-                        key.matches("ex\\d+") || key.matches("activity\\d+") || key.matches("act\\d+") ||
-                        key.startsWith("assignment") || key.startsWith("assign") || key.startsWith("homework") ||
-                        key.startsWith("task") || key.startsWith("exercise") || key.startsWith("activity") ||
-                        key.contains("assignment") || key.contains("homework") || key.contains("task") ||
-                        key.contains("exercise") || key.contains("activity") || key.startsWith("hw") ||
-                        key.equals("a") || key.equals("h") || key.equals("t") || key.contains("seatwork") ||
-                        key.contains("classwork") || key.contains("work")) {
-                    try {
-                        double score = Double.parseDouble(entry.getValue());
-                        int maxValue = maxValues.getOrDefault(entry.getKey(), 100);
-                        total += (score / maxValue) * 100;
-                        count++;
-                    } catch (NumberFormatException e) {
-                        // Skip non-numeric values
-                    }
-                }
-            }
-            return count > 0 ? total / count : -1;
-
-        } else if (category.equalsIgnoreCase("Projects") || category.equalsIgnoreCase("Project") ||
-                category.equalsIgnoreCase("Group Project") || category.equalsIgnoreCase("Group Projects") ||
-                category.equalsIgnoreCase("Individual Project") || category.equalsIgnoreCase("Team Project") ||
-                category.equalsIgnoreCase("Mini Project") || category.equalsIgnoreCase("Major Project")) {
-            // Look for project-related keys with extensive variations
-            double total = 0;
-            int count = 0;
-
-            for (Map.Entry<String, String> entry : grades.entrySet()) {
-                String key = entry.getKey().toLowerCase();
-                if (key.matches("p\\d+") || key.matches("project\\d+") || key.matches("proj\\d+") ||
-                        key.matches("gp\\d+") || key.matches("group\\d+") || key.matches("team\\d+") ||
-                        key.matches("mini\\d+") || key.matches("major\\d+") || key.matches("mp\\d+") ||
-                        key.startsWith("project") || key.startsWith("proj") || key.contains("project") ||
-                        key.contains("group project") || key.contains("team project") ||
-                        key.contains("individual project") || key.contains("mini project") ||
-                        key.contains("major project") || key.startsWith("group") || key.startsWith("team") ||
-                        key.equals("p") || key.contains("final project") || key.contains("capstone project")) {
-                    try {
-                        double score = Double.parseDouble(entry.getValue());
-                        int maxValue = maxValues.getOrDefault(entry.getKey(), 100);
-                        total += (score / maxValue) * 100;
-                        count++;
-                    } catch (NumberFormatException e) {
-                        // Skip non-numeric values
-                    }
-                }
-            }
-            return count > 0 ? total / count : -1;
-
-        } else if (category.equalsIgnoreCase("Participation") || category.equalsIgnoreCase("Class Participation") ||
-                category.equalsIgnoreCase("Attendance") || category.equalsIgnoreCase("Engagement") ||
-                category.equalsIgnoreCase("Class Work") || category.equalsIgnoreCase("Classwork") ||
-                category.equalsIgnoreCase("Class Engagement") || category.equalsIgnoreCase("Active Participation") ||
-                category.equalsIgnoreCase("Discussion") || category.equalsIgnoreCase("Class Discussion")) {
-            // Look for participation-related keys with extensive variations
-            String[] participationKeys = {"Participation", "Class Participation", "CP", "Attendance",
-                    "Class Work", "Classwork", "CW", "Engagement", "Class Engagement",
-                    "Active Participation", "Discussion", "Class Discussion", "Disc",
-                    "Participate", "Attend", "Present", "Active", "Involve", "Interaction"};
-            for (String key : participationKeys) {
-                if (parseGradeValue(grades.get(key)) != -1) {
-                    double score = parseGradeValue(grades.get(key));
-                    int maxValue = maxValues.getOrDefault(key, 100);
-                    return (score / maxValue) * 100;
-                }
-            }
-
-            // Check for abbreviated or partial matches
-            for (Map.Entry<String, String> entry : grades.entrySet()) {
-                String key = entry.getKey().toLowerCase();
-                if (key.contains("participation") || key.contains("attendance") ||
-                        key.contains("engagement") || key.contains("discussion") ||
-                        key.equals("cp") || key.equals("cw") || key.equals("disc") ||
-                        key.contains("classwork") || key.contains("class work")) {
-                    double score = parseGradeValue(entry.getValue());
-                    int maxValue = maxValues.getOrDefault(entry.getKey(), 100);
-                    return (score / maxValue) * 100;
-                }
-            }
-            return -1;
-
-        } else if (category.equalsIgnoreCase("Prelim Exam") || category.equalsIgnoreCase("Preliminary Exam") ||
-                category.equalsIgnoreCase("Prelim") || category.equalsIgnoreCase("Preliminary") ||
-                category.equalsIgnoreCase("Pre Exam") || category.equalsIgnoreCase("Pre-Exam") ||
-                category.equalsIgnoreCase("Prelims") || category.equalsIgnoreCase("First Exam") ||
-                category.equalsIgnoreCase("1st Exam") || category.equalsIgnoreCase("Exam 1")) {
-            // Look for preliminary exam keys with extensive variations
-            String[] prelimKeys = {"PE", "Prelim", "Preliminary", "Prelim Exam", "Preliminary Exam",
-                    "Pre-Exam", "Pre Exam", "Prelims", "First Exam", "1st Exam",
-                    "Exam 1", "Exam1", "E1", "PreE", "PrelE", "Initial Exam"};
-            for (String key : prelimKeys) {
-                if (parseGradeValue(grades.get(key)) != -1) {
-                    double score = parseGradeValue(grades.get(key));
-                    int maxValue = maxValues.getOrDefault(key, 100);
-                    return (score / maxValue) * 100;
-                }
-            }
-
-            // Check for pattern matches
-            for (Map.Entry<String, String> entry : grades.entrySet()) {
-                String key = entry.getKey().toLowerCase();
-                if (key.contains("prelim") || key.contains("preliminary") ||
-                        key.contains("first exam") || key.contains("1st exam") ||
-                        key.equals("pe") || key.equals("e1") || key.contains("initial exam")) {
-                    double score = parseGradeValue(entry.getValue());
-                    int maxValue = maxValues.getOrDefault(entry.getKey(), 100);
-                    return (score / maxValue) * 100;
-                }
-            }
-            return -1;
-
-        } else if (category.equalsIgnoreCase("Pre-Final Exam") || category.equalsIgnoreCase("Prefinal Exam")) {
-            // Look for pre-final exam keys
-            String[] preFinalKeys = {"PFE", "Pre-Final", "Prefinal", "Pre-Final Exam", "Prefinal Exam"};
-            for (String key : preFinalKeys) {
-                if (parseGradeValue(grades.get(key)) != -1) {
-                    double score = parseGradeValue(grades.get(key));
-                    int maxValue = maxValues.getOrDefault(key, 100);
-                    return (score / maxValue) * 100;
-                }
-            }
-            return -1;
-
-        } else if (category.equalsIgnoreCase("Midterm Exam") || category.equalsIgnoreCase("Midterm") ||
-                category.equalsIgnoreCase("Mid-Term") || category.equalsIgnoreCase("Mid Term") ||
-                category.equalsIgnoreCase("Middle Exam") || category.equalsIgnoreCase("Second Exam") ||
-                category.equalsIgnoreCase("2nd Exam") || category.equalsIgnoreCase("Exam 2")) {
-            // Look for midterm keys with extensive variations
-            String[] midtermKeys = {"ME", "MT", "Midterm", "Midterm Exam", "Mid-Term", "Mid Term",
-                    "Mid-Term Exam", "Middle Exam", "Second Exam", "2nd Exam",
-                    "Exam 2", "Exam2", "E2", "MidE", "MiddleE"};
-            for (String key : midtermKeys) {
-                if (parseGradeValue(grades.get(key)) != -1) {
-                    double score = parseGradeValue(grades.get(key));
-                    int maxValue = maxValues.getOrDefault(key, 100);
-                    return (score / maxValue) * 100;
-                }
-            }
+        return calculateGrade(grades, CompiledGradingScheme.compile(schemeJson), assessmentMaxValues);
+    }
 
-            // Check for pattern matches
-            for (Map.Entry<String, String> entry : grades.entrySet()) {
-                String key = entry.getKey().toLowerCase();
-                if (key.contains("midterm") || key.contains("mid-term") || key.contains("mid term") ||
-                        key.contains("middle exam") || key.contains("second exam") || key.contains("2nd exam") ||
-                        key.equals("me") || key.equals("mt") || key.equals("e2")) {
-                    double score = parseGradeValue(entry.getValue());
-                    int maxValue = maxValues.getOrDefault(entry.getKey(), 100);
-                    return (score / maxValue) * 100;
-                }
-            }
-            return -1;
-
-        } else if (category.equalsIgnoreCase("Final Exam") || category.equalsIgnoreCase("Final") ||
-                category.equalsIgnoreCase("Finals") || category.equalsIgnoreCase("Final Examination") ||
-                category.equalsIgnoreCase("Comprehensive Exam") || category.equalsIgnoreCase("Comprehensive") ||
-                category.equalsIgnoreCase("Third Exam") || category.equalsIgnoreCase("3rd Exam") ||
-                category.equalsIgnoreCase("Exam 3") || category.equalsIgnoreCase("Last Exam")) {
-            // Look for final exam keys with extensive variations
-            String[] finalKeys = {"FE", "Final", "Final Exam", "Finals", "Final Examination",
-                    "Comprehensive", "Comprehensive Exam", "Comp", "CompE", "Third Exam",
-                    "3rd Exam", "Exam 3", "Exam3", "E3", "Last Exam", "LE", "FinalE"};
-            for (String key : finalKeys) {
-                if (parseGradeValue(grades.get(key)) != -1) {
-                    double score = parseGradeValue(grades.get(key));
-                    int maxValue = maxValues.getOrDefault(key, 100);
-                    return (score / maxValue) * 100;
-                }
-            }
+    /**
+     * Calculate a 0-100 weighted grade against an already compiled scheme, so the scheme JSON
+     * is parsed once per class rather than once per student.
+     */
+    public double calculateGrade(Map<String, String> grades, CompiledGradingScheme gradingScheme, Map<String, Integer> assessmentMaxValues) {
+        if (gradingScheme == null) {
+            return 0.0;
+        }
+        return calculateGrade(GradeVector.of(grades, assessmentMaxValues), gradingScheme);
+    }
 
-            // Check for pattern matches
-            for (Map.Entry<String, String> entry : grades.entrySet()) {
-                String key = entry.getKey().toLowerCase();
-                if (key.contains("final") || key.contains("comprehensive") ||
-                        key.contains("third exam") || key.contains("3rd exam") ||
-                        key.contains("last exam") || key.equals("fe") || key.equals("e3") ||
-                        key.equals("comp") || key.equals("le")) {
-                    double score = parseGradeValue(entry.getValue());
-                    int maxValue = maxValues.getOrDefault(entry.getKey(), 100);
-                    return (score / maxValue) * 100;
-                }
-            }
-            return -1;
-
-        } else if (category.equalsIgnoreCase("Labs") || category.equalsIgnoreCase("Laboratory")) {
-            // Look for lab-related keys (Lab1, Lab2, etc.)
-            double total = 0;
-            int count = 0;
-
-            for (Map.Entry<String, String> entry : grades.entrySet()) {
-                String key = entry.getKey();
-                if (key.matches("Lab\\d+") || key.matches("Laboratory\\d+") || key.matches("L\\d+") ||
-                        key.toLowerCase().startsWith("lab") || key.toLowerCase().contains("laboratory")) {
-                    try {
-                        double score = Double.parseDouble(entry.getValue());
-                        int maxValue = maxValues.getOrDefault(key, 100);
-                        total += (score / maxValue) * 100;
-                        count++;
-                    } catch (NumberFormatException e) {
-                        // Skip non-numeric values
-                    }
-                }
-            }
-            return count > 0 ? total / count : -1;
-
-        } else if (category.equalsIgnoreCase("Recitation") || category.equalsIgnoreCase("Recitations")) {
-            // Look for recitation-related keys
-            double total = 0;
-            int count = 0;
-
-            for (Map.Entry<String, String> entry : grades.entrySet()) {
-                String key = entry.getKey();
-                if (key.matches("R\\d+") || key.matches("Recitation\\d+") || key.matches("Recit\\d+") ||
-                        key.toLowerCase().startsWith("recitation") || key.toLowerCase().startsWith("recit") ||
-                        key.toLowerCase().contains("recitation")) {
-                    try {
-                        double score = Double.parseDouble(entry.getValue());
-                        int maxValue = maxValues.getOrDefault(key, 100);
-                        total += (score / maxValue) * 100;
-                        count++;
-                    } catch (NumberFormatException e) {
-                        // Skip non-numeric values
-                    }
-                }
-            }
-            return count > 0 ? total / count : -1;
-
-        } else if (category.equalsIgnoreCase("Presentations")) {
-            // Look for presentation-related keys
-            double total = 0;
-            int count = 0;
-
-            for (Map.Entry<String, String> entry : grades.entrySet()) {
-                String key = entry.getKey();
-                if (key.matches("Presentation\\d+") || key.matches("Pres\\d+") ||
-                        key.toLowerCase().startsWith("presentation") || key.toLowerCase().startsWith("pres") ||
-                        key.toLowerCase().contains("presentation") || key.toLowerCase().contains("report")) {
-                    try {
-                        double score = Double.parseDouble(entry.getValue());
-                        int maxValue = maxValues.getOrDefault(key, 100);
-                        total += (score / maxValue) * 100;
-                        count++;
-                    } catch (NumberFormatException e) {
-                        // Skip non-numeric values
-                    }
-                }
-            }
-            return count > 0 ? total / count : -1;
-
-        } else if (category.equalsIgnoreCase("Case Study") || category.equalsIgnoreCase("Case Studies")) {
-            // Look for case study-related keys
-            double total = 0;
-            int count = 0;
-
-            for (Map.Entry<String, String> entry : grades.entrySet()) {
-                String key = entry.getKey();
-                if (key.matches("CS\\d+") || key.matches("Case\\d+") || key.matches("CaseStudy\\d+") ||
-                        key.toLowerCase().startsWith("case") || key.toLowerCase().contains("case study")) {
-                    try {
-                        double score = Double.parseDouble(entry.getValue());
-                        int maxValue = maxValues.getOrDefault(key, 100);
-                        total += (score / maxValue) * 100;
-                        count++;
-                    } catch (NumberFormatException e) {
-                        // Skip non-numeric values
-                    }
-                }
-            }
-            return count > 0 ? total / count : -1;
-
-        } else if (category.equalsIgnoreCase("Essays") || category.equalsIgnoreCase("Writing")) {
-            // Look for essay/writing-related keys
-            double total = 0;
-            int count = 0;
-
-            for (Map.Entry<String, String> entry : grades.entrySet()) {
-                String key = entry.getKey();
-                if (key.matches("Essay\\d+") || key.matches("E\\d+") || key.matches("Writing\\d+") ||
-                        key.toLowerCase().startsWith("essay") || key.toLowerCase().startsWith("writing") ||
-                        key.toLowerCase().contains("essay") || key.toLowerCase().contains("paper")) {
-                    try {
-                        double score = Double.parseDouble(entry.getValue());
-                        int maxValue = maxValues.getOrDefault(key, 100);
-                        total += (score / maxValue) * 100;
-                        count++;
-                    } catch (NumberFormatException e) {
-                        // Skip non-numeric values
-                    }
-                }
-            }
-            return count > 0 ? total / count : -1;
-
-        } else if (category.equalsIgnoreCase("Practicum") || category.equalsIgnoreCase("Practical")) {
-            // Look for practicum/practical-related keys
-            String[] practicumKeys = {"Practicum", "Practical", "Prac", "Hands-on", "Practice"};
-            for (String key : practicumKeys) {
-                if (parseGradeValue(grades.get(key)) != -1) {
-                    double score = parseGradeValue(grades.get(key));
-                    int maxValue = maxValues.getOrDefault(key, 100);
-                    return (score / maxValue) * 100;
-                }
-            }
-            return -1;
-
-        } else if (category.equalsIgnoreCase("Thesis") || category.equalsIgnoreCase("Capstone")) {
-            // Look for thesis/capstone-related keys
-            String[] thesisKeys = {"Thesis", "Capstone", "Thesis Defense", "Final Project", "Senior Project"};
-            for (String key : thesisKeys) {
-                if (parseGradeValue(grades.get(key)) != -1) {
-                    double score = parseGradeValue(grades.get(key));
-                    int maxValue = maxValues.getOrDefault(key, 100);
-                    return (score / maxValue) * 100;
-                }
-            }
-            return -1;
-
-        } else if (category.equalsIgnoreCase("Oral Exam") || category.equalsIgnoreCase("Oral Examination")) {
-            // Look for oral exam-related keys
-            String[] oralKeys = {"OE", "Oral", "Oral Exam", "Oral Examination", "Viva", "Defense"};
-            for (String key : oralKeys) {
-                if (parseGradeValue(grades.get(key)) != -1) {
-                    double score = parseGradeValue(grades.get(key));
-                    int maxValue = maxValues.getOrDefault(key, 100);
-                    return (score / maxValue) * 100;
-                }
-            }
-            return -1;
+    /**
+     * Calculate a 0-100 weighted grade from grades that were already parsed into a vector.
+     */
+    public double calculateGrade(GradeVector grades, CompiledGradingScheme gradingScheme) {
+        if (gradingScheme == null) {
+            return 0.0;
+        }
+        AssessmentClassifier classifier = grades.getColumns().getClassifier();
+        double totalGrade = 0.0;
 
-        } else {
-            // For other categories, try exact match first, then partial match
-            for (Map.Entry<String, String> entry : grades.entrySet()) {
-                if (entry.getKey().equalsIgnoreCase(category)) {
-                    double score = parseGradeValue(entry.getValue());
-                    int maxValue = maxValues.getOrDefault(entry.getKey(), 100);
-                    return (score / maxValue) * 100;
-                }
-            }
+        for (CompiledGradingScheme.Category category : gradingScheme.getCategories()) {
+            double categoryScore = classifier.categoryScore(category.getName(), grades);
 
-            // Try partial match if exact match fails
-            for (Map.Entry<String, String> entry : grades.entrySet()) {
-                if (entry.getKey().toLowerCase().contains(category.toLowerCase()) ||
-                        category.toLowerCase().contains(entry.getKey().toLowerCase())) {
-                    double score = parseGradeValue(entry.getValue());
-                    int maxValue = maxValues.getOrDefault(entry.getKey(), 100);
-                    return (score / maxValue) * 100;
-                }
+            // Missing categories count as 0 in the weighted calculation
+            if (categoryScore >= 0) {
+                totalGrade += (categoryScore * (category.getWeight() / 100.0));
             }
-
-            // If no match found, return -1 to indicate missing category
-            return -1;
         }
+        return gradingScheme.normalize(totalGrade);
     }
 
     public double calculateClassAverageGrade(int classId) {
+        // Average in the database when the class's computed grades are complete
+        long recordCount = gradeRecordsRepository.countByClassRecord_ClassEntity_ClassId(classId);
+        if (recordCount == 0) {
+            return 0.0;
+        }
+        if (computedGradeRepository.countByClassId(classId) == recordCount && !isStale(classId)) {
+            Double average = computedGradeRepository.averagePercentageByClassId(classId);
+            return average != null ? average : 0.0;
+        }
+
         // Get all grade records for this class
         List<GradeRecordsEntity> allRecords = gradeRecordsRepository.findByClassRecord_ClassEntity_ClassId(classId);
 
@@ -606,9 +288,9 @@ public class RecordsService {
         }
 
         // Get grading scheme for this class
-        GradingSchemes gradingScheme = gradingSchemeService.getGradingSchemeByClassEntityId(classId);
+        CompiledGradingScheme gradingScheme = gradingSchemeService.getCompiledGradingScheme(classId);
 
-        if (gradingScheme == null || gradingScheme.getGradingScheme() == null) {
+        if (gradingScheme == null) {
             // Handle missing scheme (return 0, "N/A", or a message)
             return 0.0;
         }
@@ -618,7 +300,7 @@ public class RecordsService {
         int studentCount = 0;
 
         for (GradeRecordsEntity record : allRecords) {
-            double grade = calculateGrade(record.getGrades(), gradingScheme.getGradingScheme(), record.getClassRecord().getAssessmentMaxValues());
+            double grade = calculateGrade(toGradeVector(record), gradingScheme);
             totalGrades += grade;
             studentCount++;
         }
@@ -627,17 +309,7 @@ public class RecordsService {
         return studentCount > 0 ? totalGrades / studentCount : 0.0;
     }
     public int getStudentCount(int classId) {
-
-        List<GradeRecordsEntity> allRecords = gradeRecordsRepository.findByClassRecord_ClassEntity_ClassId(classId);
-        return allRecords.size();
-    }
-    private double parseGradeValue(String value) {
-        if (value == null) return -1;
-        try {
-            return Double.parseDouble(value);
-        } catch (NumberFormatException e) {
-            return -1;
-        }
+        return (int) gradeRecordsRepository.countByClassRecord_ClassEntity_ClassId(classId);
     }
     public List<GradeRecordsEntity> getGradeRecordsByStudentId(int studentId) {
         return gradeRecordsRepository.findByStudent_UserId(studentId);
@@ -662,102 +334,71 @@ public class RecordsService {
     }
 
     public int countAtRiskStudents(int teacherId) {
-        List<ClassEntity> teacherClasses = classService.getClassesByTeacherId(teacherId);
-        Set<String> uniqueAtRiskStudents = new HashSet<>();
-
-        if (teacherClasses == null || teacherClasses.isEmpty()) {
-            return 0;
-        }
-
-        for (ClassEntity classEntity : teacherClasses) {
-            int classId = classEntity.getClassId();
-            // Fetch grading scheme
-            GradingSchemes gradingScheme = gradingSchemeService.getGradingSchemeByClassEntityId(classId);
-
-            // If no grading scheme, skip grade calculation for this class
-            if (gradingScheme == null || gradingScheme.getGradingScheme() == null) {
-                // Optionally log this:
-                // logger.warn("No grading scheme found for class ID: {}. Skipping for at-risk calculation.", classId);
-                continue;
-            }
-
-            List<GradeRecordsEntity> classRecords = gradeRecordsRepository.findByClassRecord_ClassEntity_ClassId(classId);
-
-            for (GradeRecordsEntity record : classRecords) {
-                double grade = calculateGrade(record.getGrades(), gradingScheme.getGradingScheme(),
-                        record.getClassRecord().getAssessmentMaxValues());
-                // Assuming calculateGrade returns a percentage (e.g., 85.0 for 85%)
-                // If it returns a 0-1 scale, adjust the condition below.
-                if (grade < 70 && record.getStudentNumber() != null) { // Ensure your 'at-risk' threshold is correct
-                    uniqueAtRiskStudents.add(record.getStudentNumber());
-                }
-            }
-        }
+        // Assuming calculateGrade returns a percentage (e.g., 85.0 for 85%)
+        int atRiskCount = countStudentsAcrossClasses(teacherId, grade -> grade < 70);
 
         // New log statement
-        logger.info("At-risk student identification complete. {} students flagged for intervention. Notifications sent to teacher.", uniqueAtRiskStudents.size());
+        logger.info("At-risk student identification complete. {} students flagged for intervention. Notifications sent to teacher.", atRiskCount);
 
-        return uniqueAtRiskStudents.size();
+        return atRiskCount;
     }
 
     public int countTopPerformingStudents(int teacherId) {
-        List<ClassEntity> teacherClasses = classService.getClassesByTeacherId(teacherId);
-        Set<String> uniqueTopStudents = new HashSet<>();
+        return countStudentsAcrossClasses(teacherId, grade -> grade >= 80);
+    }
 
+    /**
+     * Count unique student numbers whose grade matches the threshold in any of the teacher's classes.
+     * Classes are computed concurrently and their results merged in class order.
+     */
+    private int countStudentsAcrossClasses(int teacherId, DoublePredicate threshold) {
+        List<ClassEntity> teacherClasses = classService.getClassesByTeacherId(teacherId);
         if (teacherClasses == null || teacherClasses.isEmpty()) {
             return 0;
         }
 
-        for (ClassEntity classEntity : teacherClasses) {
-            int classId = classEntity.getClassId();
-            // Fetch grading scheme
-            GradingSchemes gradingScheme = gradingSchemeService.getGradingSchemeByClassEntityId(classId);
-
-            // If no grading scheme, skip grade calculation for this class
-            if (gradingScheme == null || gradingScheme.getGradingScheme() == null) {
-                // Optionally log this:
-                // logger.warn("No grading scheme found for class ID: {}. Skipping for top-performer calculation.", classId);
-                continue;
-            }
-
-            List<GradeRecordsEntity> classRecords = gradeRecordsRepository.findByClassRecord_ClassEntity_ClassId(classId);
-
-            for (GradeRecordsEntity record : classRecords) {
-                double grade = calculateGrade(record.getGrades(), gradingScheme.getGradingScheme(),
-                        record.getClassRecord().getAssessmentMaxValues());
-                // Assuming calculateGrade returns a percentage (e.g., 85.0 for 85%)
-                // If it returns a 0-1 scale, adjust the condition below.
-                if (grade >= 80 && record.getStudentNumber() != null) { // Ensure your 'top-performing' threshold is correct
-                    uniqueTopStudents.add(record.getStudentNumber());
-                }
-            }
+        Set<String> uniqueStudents = new HashSet<>();
+        for (Set<String> classStudents : classAnalyticsExecutor.mapInOrder(teacherClasses,
+                classEntity -> studentsMatchingThreshold(classEntity.getClassId(), threshold))) {
+            uniqueStudents.addAll(classStudents);
         }
-        return uniqueTopStudents.size();
+        return uniqueStudents.size();
     }
 
-    public int getStudentCountByTeacher(int teacherId) {
-        // First, find all classes taught by this teacher
-        List<ClassEntity> teacherClasses = classService.getClassesByTeacherId(teacherId);
-
-        // Use a Set to track unique students by their student number
-        Set<String> uniqueStudentNumbers = new HashSet<>();
+    private Set<String> studentsMatchingThreshold(int classId, DoublePredicate threshold) {
+        CompiledGradingScheme gradingScheme = gradingSchemeService.getCompiledGradingScheme(classId);
 
-        // For each class, get all students and add them to the set
-        for (ClassEntity classEntity : teacherClasses) {
-            List<GradeRecordsEntity> classRecords = gradeRecordsRepository.findByClassRecord_ClassEntity_ClassId(classEntity.getClassId());
+        // If no grading scheme, skip grade calculation for this class
+        if (gradingScheme == null) {
+            gradeComputationMetrics.schemeMissing();
+            return Collections.emptySet();
+        }
 
+        return gradeComputationMetrics.timeClass("threshold", () -> {
+            List<GradeRecordsEntity> classRecords = gradeRecordsRepository.findRosterByClassId(classId);
+            Set<String> students = new HashSet<>();
             for (GradeRecordsEntity record : classRecords) {
-                if (record.getStudentNumber() != null) {
-                    uniqueStudentNumbers.add(record.getStudentNumber());
+                double grade = calculateGrade(toGradeVector(record), gradingScheme);
+                if (record.getStudentNumber() != null && threshold.test(grade)) {
+                    students.add(record.getStudentNumber());
                 }
             }
-        }
+            gradeComputationMetrics.recordsProcessed(classRecords.size());
+            return students;
+        });
+    }
 
-        // Return the count of unique students
-        return uniqueStudentNumbers.size();
+    public int getStudentCountByTeacher(int teacherId) {
+        // Unique student numbers across all of the teacher's classes, counted in the database
+        return (int) gradeRecordsRepository.countDistinctStudentNumbersByTeacherId(teacherId);
     }
 
     public double getStudentAveragePercentage(int studentId) {
+        List<ComputedGradeEntity> computedGrades = getComputedGradesForStudent(studentId);
+        if (computedGrades != null) {
+            return computedGrades.stream().mapToDouble(ComputedGradeEntity::getPercentage).average().orElse(0.0);
+        }
+
         List<GradeRecordsEntity> gradeRecords = gradeRecordsRepository.findByStudent_UserId(studentId);
 
         if (gradeRecords.isEmpty()) {
@@ -769,8 +410,8 @@ public class RecordsService {
 
         for (GradeRecordsEntity record : gradeRecords) {
             int classId = record.getClassRecord().getClassEntity().getClassId();
-            GradingSchemes gradingScheme = gradingSchemeService.getGradingSchemeByClassEntityId(classId);
-            double percentage = calculateGrade(record.getGrades(), gradingScheme.getGradingScheme(), record.getClassRecord().getAssessmentMaxValues());
+            CompiledGradingScheme gradingScheme = gradingSchemeService.getCompiledGradingScheme(classId);
+            double percentage = calculateGrade(toGradeVector(record), gradingScheme);
             total += percentage;
             count++;
         }
@@ -779,15 +420,24 @@ public class RecordsService {
     }
 
     public Map<Integer, Double> getAllGradesByStudentId(int studentId) {
+        List<ComputedGradeEntity> computedGrades = getComputedGradesForStudent(studentId);
+        if (computedGrades != null) {
+            Map<Integer, Double> gradesByClass = new HashMap<>();
+            for (ComputedGradeEntity computed : computedGrades) {
+                gradesByClass.put(computed.getClassId(), computed.getPercentage());
+            }
+            return gradesByClass;
+        }
+
         List<GradeRecordsEntity> gradeRecords = gradeRecordsRepository.findByStudent_UserId(studentId);
         Map<Integer, Double> gradesByClass = new HashMap<>();
 
         for (GradeRecordsEntity record : gradeRecords) {
             int classId = record.getClassRecord().getClassEntity().getClassId();
-            GradingSchemes gradingScheme = gradingSchemeService.getGradingSchemeByClassEntityId(classId);
+            CompiledGradingScheme gradingScheme = gradingSchemeService.getCompiledGradingScheme(classId);
             double percentage = calculateGrade(
                 record.getGrades(),
-                gradingScheme.getGradingScheme(),
+                gradingScheme,
                 record.getClassRecord().getAssessmentMaxValues()
             );
             gradesByClass.put(classId, percentage);
@@ -824,26 +474,48 @@ public class RecordsService {
     public Map<String, Integer> getTeacherGradeDistribution(int teacherId) {
         List<ClassEntity> teacherClasses = classService.getClassesByTeacherId(teacherId);
 
-        Map<String, Integer> distribution = new HashMap<>();
-        distribution.put("A", 0);
-        distribution.put("B", 0);
-        distribution.put("C", 0);
-        distribution.put("D", 0);
-        distribution.put("F", 0);
-        distribution.put("N/A", 0); // Add N/A for missing schemes, or choose to ignore these students
+        Map<String, Integer> distribution = emptyGradeDistribution();
 
         if (teacherClasses == null || teacherClasses.isEmpty()) {
             return distribution; // Return empty distribution if teacher has no classes
         }
 
-        for (ClassEntity classEntity : teacherClasses) {
-            List<StudentTableData> classData = getClassRosterTableData(classEntity.getClassId());
+        List<Integer> classIds = teacherClasses.stream().map(ClassEntity::getClassId).toList();
 
-            for (StudentTableData student : classData) {
-                String grade = student.getGrade(); // This can be "A", "B", ..., "F", or "N/A"
+        Map<Integer, Long> recordCounts = new HashMap<>();
+        for (GradeRecordRepository.ClassCount count : gradeRecordsRepository.countByClassIds(classIds)) {
+            recordCounts.put(count.getClassId(), count.getTotal());
+        }
+
+        Set<Integer> staleClassIds = new HashSet<>(computedGradeStateRepository.findStaleClassIdsIn(classIds));
+
+        // Letter grade buckets computed in the database from the materialized grades
+        Map<Integer, Long> computedCounts = new HashMap<>();
+        Map<Integer, Map<String, Integer>> rosteredBuckets = new HashMap<>();
+        for (ComputedGradeRepository.GradeBucket bucket : computedGradeRepository.countGradeBucketsByClassIds(classIds)) {
+            computedCounts.merge(bucket.getClassId(), bucket.getTotal(), Long::sum);
+            // Only students on the roster count towards the distribution
+            if (Boolean.TRUE.equals(bucket.getRostered())) {
+                rosteredBuckets.computeIfAbsent(bucket.getClassId(), k -> new HashMap<>())
+                        .merge(bucket.getGrade(), bucket.getTotal().intValue(), Integer::sum);
+            }
+        }
+
+        for (Integer classId : classIds) {
+            long recordCount = recordCounts.getOrDefault(classId, 0L);
+            if (recordCount == 0) {
+                continue;
+            }
+
+            if (computedCounts.getOrDefault(classId, 0L) == recordCount && !staleClassIds.contains(classId)) {
+                rosteredBuckets.getOrDefault(classId, Map.of())
+                        .forEach((grade, count) -> distribution.merge(grade, count, Integer::sum));
+                continue;
+            }
 
-                // Use getOrDefault to handle cases where the grade might not be an expected key (e.g., "N/A")
-                // or if you decide not to pre-initialize "N/A"
+            // Computed grades missing or stale for this class; fall back to the live roster
+            for (StudentTableData student : getClassRosterTableData(classId)) {
+                String grade = student.getGrade(); // This can be "A", "B", ..., "F", or "N/A"
                 distribution.put(grade, distribution.getOrDefault(grade, 0) + 1);
             }
         }
@@ -853,41 +525,168 @@ public class RecordsService {
     public List<TeacherAssessmentPerformance> getClassPerformanceData(int teacherId) {
         // Find all classes taught by this teacher
         List<ClassEntity> teacherClasses = classService.getClassesByTeacherId(teacherId);
+        if (teacherClasses == null || teacherClasses.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Collect all assessment data by type across all classes, merging in class order
+        Map<String, List<Double>> assessmentScores = new HashMap<>();
+        for (Map<String, List<Double>> classScores : classAnalyticsExecutor.mapInOrder(teacherClasses, classEntity -> {
+            Map<String, List<Double>> scores = new HashMap<>();
+            collectAssessmentScores(gradeRecordsRepository.findRosterByClassId(classEntity.getClassId()), scores);
+            return scores;
+        })) {
+            mergeAssessmentScores(classScores, assessmentScores);
+        }
+
+        return summarizeAssessmentScores(assessmentScores);
+    }
 
-        // Collect all assessment data by type across all classes
+    /**
+     * Compute every teacher dashboard metric (student count, at-risk and top-performing counts,
+     * grade distribution and assessment performance) from a single load of each class's records.
+     * Values match the individual teacher endpoints.
+     */
+    public TeacherDashboardResponse getTeacherDashboard(int teacherId) {
+        List<ClassEntity> teacherClasses = classService.getClassesByTeacherId(teacherId);
+
+        Set<String> uniqueStudentNumbers = new HashSet<>();
+        Set<String> uniqueAtRiskStudents = new HashSet<>();
+        Set<String> uniqueTopStudents = new HashSet<>();
+        Map<String, Integer> distribution = emptyGradeDistribution();
         Map<String, List<Double>> assessmentScores = new HashMap<>();
 
-        for (ClassEntity classEntity : teacherClasses) {
-            int classId = classEntity.getClassId();
-            List<GradeRecordsEntity> classRecords = gradeRecordsRepository.findByClassRecord_ClassEntity_ClassId(classId);
+        if (teacherClasses != null) {
+            for (ClassDashboardMetrics metrics : classAnalyticsExecutor.mapInOrder(teacherClasses,
+                    classEntity -> computeClassDashboardMetrics(classEntity.getClassId()))) {
+                uniqueStudentNumbers.addAll(metrics.studentNumbers);
+                uniqueAtRiskStudents.addAll(metrics.atRiskStudents);
+                uniqueTopStudents.addAll(metrics.topStudents);
+                metrics.distribution.forEach((grade, count) -> distribution.merge(grade, count, Integer::sum));
+                mergeAssessmentScores(metrics.assessmentScores, assessmentScores);
+            }
+        }
+
+        return new TeacherDashboardResponse(
+                uniqueStudentNumbers.size(),
+                uniqueAtRiskStudents.size(),
+                uniqueTopStudents.size(),
+                distribution,
+                summarizeAssessmentScores(assessmentScores)
+        );
+    }
+
+    private ClassDashboardMetrics computeClassDashboardMetrics(int classId) {
+        return gradeComputationMetrics.timeClass("dashboard", () -> collectClassDashboardMetrics(classId));
+    }
+
+    private ClassDashboardMetrics collectClassDashboardMetrics(int classId) {
+        ClassDashboardMetrics metrics = new ClassDashboardMetrics();
+        List<GradeRecordsEntity> classRecords = gradeRecordsRepository.findRosterByClassId(classId);
+        CompiledGradingScheme gradingScheme = gradingSchemeService.getCompiledGradingScheme(classId);
+        if (gradingScheme == null) {
+            gradeComputationMetrics.schemeMissing();
+        }
+
+        // Parse each record's grades once for both the grade and the assessment statistics
+        List<GradeVector> gradeVectors = new ArrayList<>(classRecords.size());
+        for (GradeRecordsEntity record : classRecords) {
+            String studentNumber = record.getStudentNumber();
+            if (studentNumber != null) {
+                metrics.studentNumbers.add(studentNumber);
+            }
+
+            GradeVector grades = toGradeVector(record);
+            gradeVectors.add(grades);
+            ComputedGradeEntity computed = computeGrade(classId, record, grades, gradingScheme);
+            if (gradingScheme != null && studentNumber != null) {
+                if (computed.getPercentage() < 70) {
+                    metrics.atRiskStudents.add(studentNumber);
+                }
+                if (computed.getPercentage() >= 80) {
+                    metrics.topStudents.add(studentNumber);
+                }
+            }
+            // The distribution is built from the roster, which only lists records with a student
+            if (record.getStudent() != null) {
+                metrics.distribution.merge(computed.getLetterGrade(), 1, Integer::sum);
+            }
+        }
+
+        collectAssessmentScores(classRecords, gradeVectors, metrics.assessmentScores);
+        gradeComputationMetrics.recordsProcessed(classRecords.size());
+        return metrics;
+    }
+
+    /**
+     * Per-class partial results for the teacher dashboard, merged by the caller in class order.
+     */
+    private static final class ClassDashboardMetrics {
+        private final Set<String> studentNumbers = new HashSet<>();
+        private final Set<String> atRiskStudents = new HashSet<>();
+        private final Set<String> topStudents = new HashSet<>();
+        private final Map<String, Integer> distribution = new HashMap<>();
+        private final Map<String, List<Double>> assessmentScores = new HashMap<>();
+    }
+
+    private void mergeAssessmentScores(Map<String, List<Double>> source, Map<String, List<Double>> target) {
+        for (Map.Entry<String, List<Double>> entry : source.entrySet()) {
+            target.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).addAll(entry.getValue());
+        }
+    }
+
+    private Map<String, Integer> emptyGradeDistribution() {
+        Map<String, Integer> distribution = new HashMap<>();
+        distribution.put("A", 0);
+        distribution.put("B", 0);
+        distribution.put("C", 0);
+        distribution.put("D", 0);
+        distribution.put("F", 0);
+        distribution.put("N/A", 0); // Add N/A for missing schemes, or choose to ignore these students
+        return distribution;
+    }
+
+    /**
+     * Add each record's assessment percentages for one class, grouped by assessment type.
+     */
+    private void collectAssessmentScores(List<GradeRecordsEntity> classRecords, Map<String, List<Double>> assessmentScores) {
+        List<GradeVector> gradeVectors = new ArrayList<>(classRecords.size());
+        for (GradeRecordsEntity record : classRecords) {
+            gradeVectors.add(toGradeVector(record));
+        }
+        collectAssessmentScores(classRecords, gradeVectors, assessmentScores);
+    }
 
-            if (classRecords.isEmpty()) continue;
+    private void collectAssessmentScores(List<GradeRecordsEntity> classRecords, List<GradeVector> gradeVectors,
+                                         Map<String, List<Double>> assessmentScores) {
+        if (classRecords.isEmpty()) return;
 
-            Map<String, Integer> assessmentMaxValues = classRecords.get(0).getClassRecord().getAssessmentMaxValues();
+        Map<String, Integer> assessmentMaxValues = classRecords.get(0).getClassRecord().getAssessmentMaxValues();
+        GradeVector.Columns columns = gradeVectors.get(0).getColumns();
 
-            // Process each assessment type in this class
-            for (String assessmentKey : assessmentMaxValues.keySet()) {
-                String assessmentType = getAssessmentType(assessmentKey);
+        // Process each assessment type in this class
+        for (String assessmentKey : assessmentMaxValues.keySet()) {
+            String assessmentType = getAssessmentType(assessmentKey);
+            int column = columns.indexOf(assessmentKey);
 
-                // Initialize list if not exists
-                assessmentScores.computeIfAbsent(assessmentType, k -> new ArrayList<>());
+            // Initialize list if not exists
+            List<Double> scores = assessmentScores.computeIfAbsent(assessmentType, k -> new ArrayList<>());
 
-                // Collect scores for this assessment type
-                for (GradeRecordsEntity record : classRecords) {
-                    Map<String, String> grades = record.getGrades();
-                    if (grades.containsKey(assessmentKey)) {
-                        double score = parseGradeValue(grades.get(assessmentKey));
-                        if (score >= 0) {
-                            int maxValue = assessmentMaxValues.get(assessmentKey);
-                            double percentage = (score / maxValue) * 100;
-                            assessmentScores.get(assessmentType).add(percentage);
-                        }
-                    }
+            // Collect scores for this assessment type; missing and non-numeric grades are NaN
+            for (GradeVector grades : gradeVectors) {
+                double score = grades.getColumns() == columns ? grades.score(column) : grades.score(assessmentKey);
+                if (score >= 0) {
+                    int maxValue = assessmentMaxValues.get(assessmentKey);
+                    scores.add((score / maxValue) * 100);
                 }
             }
         }
+    }
 
-        // Calculate performance statistics for each assessment type
+    /**
+     * Calculate performance statistics (average, top and bottom quartile) for each assessment type.
+     */
+    private List<TeacherAssessmentPerformance> summarizeAssessmentScores(Map<String, List<Double>> assessmentScores) {
         List<TeacherAssessmentPerformance> performanceData = new ArrayList<>();
 
         for (Map.Entry<String, List<Double>> entry : assessmentScores.entrySet()) {
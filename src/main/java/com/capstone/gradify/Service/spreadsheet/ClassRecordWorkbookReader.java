@@ -0,0 +1,335 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads the first sheet of a class record workbook in a single pass. .xlsx files are streamed from
+ * disk with the SAX event model, so only the shared strings and the parsed records are kept in
+ * memory; legacy .xls files fall back to the POI workbook model.
+ * <p>
+ * Cell values match what the workbook model produced: numbers as {@code String.valueOf(double)},
+ * formulas and errors as empty strings, and max values truncated to int.
+ */
+final class ClassRecordWorkbookReader {
+
+    private ClassRecordWorkbookReader() {
+    }
+
+    /**
+     * Read headers, max values and records of a file on disk (a staged upload). The validator
+     * receives the header row and the raw max-value row before any data row is read, so invalid
+     * templates fail early. .xlsx is opened in place and .xls through POI's file-backed reader.
+     */
+    static ParsedSpreadsheet read(Path file, BiConsumer<List<String>, List<String>> validator) throws IOException {
+        if (FileMagic.valueOf(file.toFile()) == FileMagic.OOXML) {
+            return readStreaming(file, validator);
+        }
+        try (Workbook workbook = WorkbookFactory.create(file.toFile(), null, true)) {
+            return readWorkbook(workbook, validator);
+        }
+    }
+
+    private static ParsedSpreadsheet readStreaming(Path file, BiConsumer<List<String>, List<String>> validator) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            SheetHandler handler = new SheetHandler(sharedStrings, validator);
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(handler);
+                    parser.parse(new InputSource(sheet));
+                }
+            }
+            return handler.finish();
+        } catch (SAXException e) {
+            if (e.getException() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Error reading spreadsheet: " + e.getMessage(), e);
+        } catch (OpenXML4JException | ParserConfigurationException e) {
+            throw new IOException("Error reading spreadsheet: " + e.getMessage(), e);
+        }
+    }
+
+    private static ParsedSpreadsheet readWorkbook(Workbook workbook, BiConsumer<List<String>, List<String>> validator) {
+        Sheet sheet = workbook.getSheetAt(0);
+        Iterator<Row> rowIterator = sheet.iterator();
+
+        List<String> headers = new ArrayList<>();
+        if (rowIterator.hasNext()) {
+            for (Cell cell : rowIterator.next()) {
+                headers.add(cell.getStringCellValue());
+            }
+        }
+
+        Map<String, Integer> maxAssessmentValues = new HashMap<>();
+        List<String> maxRow = new ArrayList<>();
+        if (rowIterator.hasNext()) {
+            Row maxValueRow = rowIterator.next();
+            for (int i = 0; i < headers.size(); i++) {
+                Cell cell = maxValueRow.getCell(i);
+                if (cell != null && cell.getCellType() == CellType.NUMERIC) {
+                    int maxValue = (int) cell.getNumericCellValue();
+                    maxRow.add(String.valueOf(maxValue));
+                    maxAssessmentValues.put(headers.get(i), maxValue);
+                } else if (cell != null && cell.getCellType() == CellType.STRING) {
+                    maxRow.add(cell.getStringCellValue().trim());
+                } else {
+                    maxRow.add("");
+                }
+            }
+        }
+        validator.accept(headers, maxRow);
+
+        List<Map<String, String>> records = new ArrayList<>();
+        while (rowIterator.hasNext()) {
+            Row row = rowIterator.next();
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < headers.size(); i++) {
+                record.put(headers.get(i), cellValue(row.getCell(i)));
+            }
+            records.add(record);
+        }
+        return new ParsedSpreadsheet(headers, maxAssessmentValues, records);
+    }
+
+    private static String cellValue(Cell cell) {
+        if (cell == null) {
+            return "";
+        }
+        switch (cell.getCellType()) {
+            case STRING:
+                return cell.getStringCellValue();
+            case NUMERIC:
+                return String.valueOf(cell.getNumericCellValue());
+            case BOOLEAN:
+                return String.valueOf(cell.getBooleanCellValue());
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * SAX handler for one worksheet. Rows are numbered by their position in the sheet, like the
+     * workbook row iterator, so missing rows are skipped rather than returned empty.
+     */
+    private static final class SheetHandler extends DefaultHandler {
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final BiConsumer<List<String>, List<String>> validator;
+
+        private final List<String> headers = new ArrayList<>();
+        private final Map<String, Integer> maxAssessmentValues = new HashMap<>();
+        private final List<Map<String, String>> records = new ArrayList<>();
+
+        private int rowCount;
+        private final List<SheetCell> rowCells = new ArrayList<>();
+
+        private int cellColumn;
+        private String cellType;
+        private boolean cellHasFormula;
+        private String cellValue;
+        private final StringBuilder text = new StringBuilder();
+        private boolean inValue;
+        private boolean inInlineText;
+        private StringBuilder inlineText;
+
+        private SheetHandler(ReadOnlySharedStringsTable sharedStrings, BiConsumer<List<String>, List<String>> validator) {
+            this.sharedStrings = sharedStrings;
+            this.validator = validator;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row" -> rowCells.clear();
+                case "c" -> {
+                    String reference = attributes.getValue("r");
+                    cellColumn = reference != null
+                            ? new CellReference(reference).getCol()
+                            : (rowCells.isEmpty() ? 0 : rowCells.get(rowCells.size() - 1).column() + 1);
+                    cellType = attributes.getValue("t");
+                    cellHasFormula = false;
+                    cellValue = null;
+                    inlineText = null;
+                }
+                case "f" -> cellHasFormula = true;
+                case "v" -> {
+                    inValue = true;
+                    text.setLength(0);
+                }
+                case "is" -> inlineText = new StringBuilder();
+                case "t" -> {
+                    if (inlineText != null) {
+                        inInlineText = true;
+                        text.setLength(0);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue || inInlineText) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v" -> {
+                    inValue = false;
+                    cellValue = text.toString();
+                }
+                case "t" -> {
+                    if (inInlineText) {
+                        inInlineText = false;
+                        inlineText.append(text);
+                    }
+                }
+                case "c" -> rowCells.add(toCell());
+                case "row" -> {
+                    rowCount++;
+                    if (rowCount == 1) {
+                        readHeaders();
+                    } else if (rowCount == 2) {
+                        readMaxValues();
+                    } else {
+                        readRecord();
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private SheetCell toCell() {
+            if (cellHasFormula) {
+                // Keep the cached string result for headers; formula values themselves read as empty
+                return new SheetCell(cellColumn, CellType.FORMULA, "str".equals(cellType) ? cellValue : null);
+            }
+            if ("s".equals(cellType)) {
+                String value = cellValue == null || cellValue.isEmpty() ? ""
+                        : sharedStrings.getItemAt(Integer.parseInt(cellValue)).getString();
+                return new SheetCell(cellColumn, CellType.STRING, value);
+            }
+            if ("inlineStr".equals(cellType) || "str".equals(cellType)) {
+                String value = inlineText != null ? inlineText.toString() : cellValue;
+                return new SheetCell(cellColumn, CellType.STRING, value != null ? value : "");
+            }
+            if ("b".equals(cellType)) {
+                return new SheetCell(cellColumn, CellType.BOOLEAN, String.valueOf("1".equals(cellValue)));
+            }
+            if ("e".equals(cellType)) {
+                return new SheetCell(cellColumn, CellType.ERROR, null);
+            }
+            if (cellValue == null || cellValue.isEmpty()) {
+                return new SheetCell(cellColumn, CellType.BLANK, null);
+            }
+            return new SheetCell(cellColumn, CellType.NUMERIC, cellValue);
+        }
+
+        private void readHeaders() {
+            for (SheetCell cell : rowCells) {
+                if (cell.type() == CellType.STRING) {
+                    headers.add(cell.value());
+                } else if (cell.type() == CellType.BLANK || (cell.type() == CellType.FORMULA && cell.value() != null)) {
+                    headers.add(cell.value() != null ? cell.value() : "");
+                } else {
+                    throw new IllegalStateException("Cannot get a STRING value from a " + cell.type()
+                            + " cell in the header row");
+                }
+            }
+        }
+
+        private void readMaxValues() {
+            Map<Integer, SheetCell> cellsByColumn = indexByColumn();
+            List<String> maxRow = new ArrayList<>(headers.size());
+            for (int i = 0; i < headers.size(); i++) {
+                SheetCell cell = cellsByColumn.get(i);
+                if (cell != null && cell.type() == CellType.NUMERIC) {
+                    int maxValue = (int) Double.parseDouble(cell.value());
+                    maxRow.add(String.valueOf(maxValue));
+                    maxAssessmentValues.put(headers.get(i), maxValue);
+                } else if (cell != null && cell.type() == CellType.STRING) {
+                    maxRow.add(cell.value().trim());
+                } else {
+                    maxRow.add("");
+                }
+            }
+            validator.accept(headers, maxRow);
+        }
+
+        private void readRecord() {
+            Map<Integer, SheetCell> cellsByColumn = indexByColumn();
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < headers.size(); i++) {
+                SheetCell cell = cellsByColumn.get(i);
+                String value = "";
+                if (cell != null) {
+                    switch (cell.type()) {
+                        case STRING, BOOLEAN -> value = cell.value();
+                        case NUMERIC -> value = String.valueOf(Double.parseDouble(cell.value()));
+                        default -> {
+                        }
+                    }
+                }
+                record.put(headers.get(i), value);
+            }
+            records.add(record);
+        }
+
+        private Map<Integer, SheetCell> indexByColumn() {
+            Map<Integer, SheetCell> cellsByColumn = new HashMap<>();
+            for (SheetCell cell : rowCells) {
+                cellsByColumn.put(cell.column(), cell);
+            }
+            return cellsByColumn;
+        }
+
+        private ParsedSpreadsheet finish() {
+            if (rowCount < 2) {
+                // Missing header or max-value row; the validator reports which
+                validator.accept(headers, new ArrayList<>());
+            }
+            return new ParsedSpreadsheet(headers, maxAssessmentValues, records);
+        }
+    }
+
+    private record SheetCell(int column, CellType type, String value) {
+    }
+}
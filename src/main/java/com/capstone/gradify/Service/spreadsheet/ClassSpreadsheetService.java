@@ -8,23 +8,30 @@ import com.capstone.gradify.Entity.user.TeacherEntity;
 import com.capstone.gradify.Repository.records.ClassRepository;
 import com.capstone.gradify.Repository.records.ClassSpreadsheetRepository;
 import com.capstone.gradify.Repository.records.GradeRecordRepository;
+import com.capstone.gradify.Repository.report.ReportRepository;
 import com.capstone.gradify.Repository.user.StudentRepository;
+import com.capstone.gradify.Service.academic.GradesChangedEvent;
 import com.capstone.gradify.dto.response.GradeErrorDetail;
 import com.capstone.gradify.dto.response.SpreadsheetValidationResult;
 import com.capstone.gradify.exceptions.GradeException.GradeValidationException;
 import com.capstone.gradify.exceptions.TemplateException.InvalidHeaderException;
 import com.capstone.gradify.exceptions.TemplateException.MaxAssessmentMissingException;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
-import org.apache.poi.ss.usermodel.*;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.transaction.annotation.Transactional;
 import com.capstone.gradify.Entity.user.StudentEntity;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
 
 @Service
 @RequiredArgsConstructor
@@ -34,11 +41,16 @@ public class ClassSpreadsheetService {
     private final StudentRepository studentRepository;
     private final GradeRecordRepository gradeRecordRepository;
     private final ClassRepository classRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final ReportRepository reportRepository;
 
     //CONSTANT LIST OF REQUIRED HEADERS
     private static final List<String> REQUIRED_FIXED_HEADERS = Arrays.asList(
             "Student Number", "First Name", "Last Name"
     );
+    // Keeps IN lists well under the PostgreSQL bind parameter limit
+    private static final int STUDENT_LOOKUP_CHUNK_SIZE = 1000;
 
     public Optional<ClassSpreadsheet> getClassSpreadsheetById(Long id){
         Optional<ClassSpreadsheet> classSpreadsheet = classSpreadsheetRepository.findById(id);
@@ -48,114 +60,31 @@ public class ClassSpreadsheetService {
         return classSpreadsheet;
     }
 
-    public List<Map<String, String>> parseClassRecord(MultipartFile file) throws IOException {
-        List<Map<String, String>> records = new ArrayList<>();
-        Map<String, Integer> maxAssessmentValues = new HashMap<>();
-
-        Workbook workbook = WorkbookFactory.create(file.getInputStream());
-        Sheet sheet = workbook.getSheetAt(0);
-
-        Iterator<Row> rowIterator = sheet.iterator();
-        List<String> headers = new ArrayList<>();
-        if (rowIterator.hasNext()) {
-            Row headerRow = rowIterator.next();
-            for(Cell cell : headerRow) {
-                headers.add(cell.getStringCellValue());
-            }
-        }
-        List<String> maxRows = new ArrayList<>();
-        if (rowIterator.hasNext()) {
-            Row maxValueRow = rowIterator.next();
-            for (int i = 0; i < headers.size(); i++) {
-                String header = headers.get(i);
-                Cell cell = maxValueRow.getCell(i);
-
-                // Only process assessment columns (those with numeric values)
-                if (cell == null || cell.getCellType() == CellType.BLANK) {
-                    // Add empty string for blank cells (columns A, B, C)
-                    maxRows.add("");
-                } else if (cell.getCellType() == CellType.NUMERIC) {
-                    // Add numeric value for assessment columns
-                    int maxValue = (int) cell.getNumericCellValue();
-                    maxRows.add(String.valueOf(maxValue));
-                    maxAssessmentValues.put(header, maxValue);
-                } else if (cell.getCellType() == CellType.STRING) {
-                    // Handle string values (in case someone types text)
-                    maxRows.add(cell.getStringCellValue().trim());
-                } else {
-                    // Handle other cell types
-                    maxRows.add("");
-                }
-            }
-        }
-        logger.info("Max assessment values: {}", maxRows);
-        validateHeadersAndMaxValues(headers, maxRows);
-        while (rowIterator.hasNext()) {
-            Row row = rowIterator.next();
-            Map<String, String> record = new java.util.HashMap<>();
-            for (int i = 0; i < headers.size(); i++) {
-                Cell cell = row.getCell(i);
-                String cellValue = getCellValue(cell);
-                record.put(headers.get(i), cellValue);
-            }
-            records.add(record);
-        }
-
-
-        workbook.close();
-        return records;
-    }
-
-    public Map<String, Integer> getMaxAssessmentValue(MultipartFile file) throws IOException {
-        Map<String, Integer> maxAssessmentValues = new HashMap<>();
-        Workbook workbook = WorkbookFactory.create(file.getInputStream());
-        Sheet sheet = workbook.getSheetAt(0);
-
-        Iterator<Row> rowIterator = sheet.iterator();
-        List<String> headers = new ArrayList<>();
-        if (rowIterator.hasNext()) {
-            Row headerRow = rowIterator.next();
-            for(Cell cell : headerRow) {
-                headers.add(cell.getStringCellValue());
-            }
-        }
-
-        if (rowIterator.hasNext()) {
-            Row maxValueRow = rowIterator.next();
-            for (int i = 0; i < headers.size(); i++) {
-                String header = headers.get(i);
-                Cell cell = maxValueRow.getCell(i);
-
-                // Only process assessment columns (those with numeric values)
-                if (cell != null && cell.getCellType() == CellType.NUMERIC) {
-                    int maxValue = (int) cell.getNumericCellValue();
-                    maxAssessmentValues.put(header, maxValue);
-                }
-            }
+    /**
+     * Read an uploaded class record in one pass: headers, max values and student rows. The header
+     * and max-value rows are validated before any student row is read.
+     */
+    public ParsedSpreadsheet parseSpreadsheet(MultipartFile file) throws IOException {
+        // Staged to disk once and read from there; the upload is not read again afterwards
+        try (StagedUpload staged = StagedUpload.stage(file)) {
+            return parseSpreadsheet(staged.getPath());
         }
-        workbook.close();
-        return maxAssessmentValues;
     }
 
-    private String getCellValue(Cell cell) {
-        if (cell == null) {
-            return ""; // Return empty string for null cells
-        }
-        String value = "";
-        switch (cell.getCellType()) {
-            case STRING:
-                value = cell.getStringCellValue();
-                break;
-            case NUMERIC:
-                value = String.valueOf(cell.getNumericCellValue());
-                break;
-            case BOOLEAN:
-                value = String.valueOf(cell.getBooleanCellValue());
-                break;
-            default:
-                break;
-        }
-        return value;
+    /**
+     * Parse a class record on disk. CSV and TSV exports are recognised by their content and read
+     * without POI; everything else goes through the workbook reader.
+     */
+    public ParsedSpreadsheet parseSpreadsheet(Path file) throws IOException {
+        BiConsumer<List<String>, List<String>> validator = (headers, maxRow) -> {
+            logger.info("Max assessment values: {}", maxRow);
+            validateHeadersAndMaxValues(headers, maxRow);
+        };
+        Character delimiter = DelimitedClassRecordReader.sniffDelimiter(file);
+        if (delimiter != null) {
+            return DelimitedClassRecordReader.read(file, delimiter, validator);
+        }
+        return ClassRecordWorkbookReader.read(file, validator);
     }
 
     public String extractFileName(String fileName){
@@ -167,10 +96,15 @@ public class ClassSpreadsheetService {
 
     // Overload createClassEntityFromSpreadsheet to accept an optional custom name
     public ClassEntity createClassEntityFromSpreadsheet(MultipartFile file, List<Map<String, String>> records, TeacherEntity teacher, String customClassName) {
+        return createClassEntityFromSpreadsheet(file.getOriginalFilename(), records, teacher, customClassName);
+    }
+
+    // Same as above for uploads that are no longer backed by a MultipartFile (ingest jobs)
+    public ClassEntity createClassEntityFromSpreadsheet(String originalFilename, List<Map<String, String>> records, TeacherEntity teacher, String customClassName) {
         ClassEntity classEntity = new ClassEntity();
         classEntity.setTeacher(teacher);
 
-        String filename = (customClassName != null && !customClassName.isEmpty()) ? customClassName : file.getOriginalFilename();
+        String filename = (customClassName != null && !customClassName.isEmpty()) ? customClassName : originalFilename;
 
         if (filename != null) {
             String baseName = filename.contains(".") ? filename.substring(0, filename.lastIndexOf('.')) : filename;
@@ -303,26 +237,21 @@ public class ClassSpreadsheetService {
             classRecord = classSpreadsheetRepository.save(classRecord);
         }
 
-        // Find the student by student number or create new one
-        StudentEntity student = studentRepository.findByStudentNumber(studentNumber)
-                .orElseGet(() -> {
-                    StudentEntity newStudent = new StudentEntity();
-                    newStudent.setStudentNumber(studentNumber);
-
-
-                    newStudent.setFirstName(studentFirstName);
-                    newStudent.setLastName(studentLastName);
-                    newStudent.setRole(Role.STUDENT);
-                    newStudent.setActive(true);
-                    newStudent.setCreatedAt(new Date());
-
-                    // You might need a temporary email and password if these are required
-                    // or mark them as to be completed later by the student
-                    newStudent.setEmail(studentNumber + "@temp.edu"); // Temporary email
-                    newStudent.setPassword("PLACEHOLDER"); // Will need to be changed when student registers
+        IngestStudents students = new IngestStudents(Collections.singletonList(studentNumber));
+        StudentEntity student = students.resolve(studentNumber, studentFirstName, studentLastName);
+        students.saveCreated();
+        return gradeRecordRepository.save(buildGradeRecord(studentNumber, student, classRecord, grades));
+    }
 
-                    return studentRepository.save(newStudent);
-                });
+    /**
+     * Build a grade record linked to its student without saving it, so the caller can persist a
+     * whole sheet through the spreadsheet cascade in batched inserts.
+     */
+    private GradeRecordsEntity buildGradeRecord(
+            String studentNumber,
+            StudentEntity student,
+            ClassSpreadsheet classRecord,
+            Map<String, String> grades) {
 
         // Create and populate the grade record
         GradeRecordsEntity gradeRecord = new GradeRecordsEntity();
@@ -330,16 +259,70 @@ public class ClassSpreadsheetService {
         gradeRecord.setStudent(student); // Associate with student
         gradeRecord.setClassRecord(classRecord);
         gradeRecord.setGrades(grades);
+        gradeRecord.setRowHash(ContentFingerprint.row(grades));
 
-        return gradeRecordRepository.save(gradeRecord);
+        return gradeRecord;
     }
+
+    /**
+     * Students referenced by one ingest, loaded with one IN query per chunk instead of a lookup per
+     * row. Unknown student numbers get placeholder accounts that are saved together by
+     * {@link #saveCreated()}, which must run before the grade records referencing them are saved.
+     */
+    private final class IngestStudents {
+        private final Map<String, StudentEntity> byStudentNumber = new HashMap<>();
+        private final List<StudentEntity> created = new ArrayList<>();
+
+        IngestStudents(Collection<String> studentNumbers) {
+            List<String> distinctNumbers = studentNumbers.stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .toList();
+            for (int from = 0; from < distinctNumbers.size(); from += STUDENT_LOOKUP_CHUNK_SIZE) {
+                List<String> chunk = distinctNumbers.subList(from, Math.min(from + STUDENT_LOOKUP_CHUNK_SIZE, distinctNumbers.size()));
+                for (StudentEntity student : studentRepository.findByStudentNumberIn(chunk)) {
+                    byStudentNumber.putIfAbsent(student.getStudentNumber(), student);
+                }
+            }
+        }
+
+        StudentEntity resolve(String studentNumber, String studentFirstName, String studentLastName) {
+            StudentEntity student = byStudentNumber.get(studentNumber);
+            if (student == null) {
+                student = new StudentEntity();
+                student.setStudentNumber(studentNumber);
+                student.setFirstName(studentFirstName);
+                student.setLastName(studentLastName);
+                student.setRole(Role.STUDENT);
+                student.setActive(true);
+                student.setCreatedAt(new Date());
+
+                // Temporary email and password until the student registers
+                student.setEmail(studentNumber + "@temp.edu");
+                student.setPassword("PLACEHOLDER");
+
+                byStudentNumber.put(studentNumber, student);
+                created.add(student);
+            }
+            return student;
+        }
+
+        void saveCreated() {
+            if (!created.isEmpty()) {
+                studentRepository.saveAll(created);
+                logger.debug("Created {} placeholder students", created.size());
+                created.clear();
+            }
+        }
+    }
+
     // Microsoft Excel compatibility
     // METHOD FOR SAVING RECORDS WITH FOLDER DETAILS FROM MICROSOFT EXCEL
+    @Transactional
     public ClassSpreadsheet saveRecord(String filename, String itemId, String folderName, String folderId, TeacherEntity teacher,
                                        List<Map<String, String>> records, ClassEntity classEntity, Map<String, Integer> maxAssessmentValues) {
 
-        // PRE VALIDATE ALL GRADES AGAINST MAX VALUES
-        preValidateAllRecords(records, maxAssessmentValues);
+        // Grades are validated by the caller (preValidateAllRecords) before the class is created
 
         ClassSpreadsheet spreadsheet = new ClassSpreadsheet();
         spreadsheet.setFileName(filename);
@@ -354,22 +337,18 @@ public class ClassSpreadsheetService {
 
         spreadsheet.setVisibleAssessments(new HashSet<>());
 
+        IngestStudents students = new IngestStudents(records.stream().map(this::getStudentNumber).toList());
         List<GradeRecordsEntity> gradeRecords = new ArrayList<>();
         for (Map<String, String> record : records) {
             String studentFirstName = extractFirstName(record);
             String studentLastName = extractLastName(record);
 
-            String studentNumber = record.get("Student Number");
-
-            if (studentNumber == null) {
-                studentNumber = record.get("StudentNumber");
-            }
+            String studentNumber = getStudentNumber(record);
 
-            // Create the grade record with student association
-            GradeRecordsEntity gradeRecord = createGradeRecordWithStudentAssociation(
+            // Create the grade record with student association; it is inserted with the spreadsheet
+            GradeRecordsEntity gradeRecord = buildGradeRecord(
                     studentNumber,
-                    studentFirstName,
-                    studentLastName,
+                    students.resolve(studentNumber, studentFirstName, studentLastName),
                     spreadsheet,
                     record
             );
@@ -384,14 +363,17 @@ public class ClassSpreadsheetService {
 
         logger.info("Valid spreadsheet uploaded. {} records processed successfully.", records.size());
 
-        return classSpreadsheetRepository.save(spreadsheet);
+        students.saveCreated();
+        ClassSpreadsheet savedSpreadsheet = classSpreadsheetRepository.save(spreadsheet);
+        publishGradesChanged(savedSpreadsheet);
+        return savedSpreadsheet;
     }
     //for google sheets compatibility
+    @Transactional
     public ClassSpreadsheet saveRecord(String filename, TeacherEntity teacher,
                                        List<Map<String, String>> records, ClassEntity classEntity, Map<String, Integer> maxAssessmentValues, String sharedLink, Boolean isGoogleSheets) {
 
-        // PRE VALIDATE ALL GRADES AGAINST MAX VALUES
-        preValidateAllRecords(records, maxAssessmentValues);
+        // Grades are validated by the caller (preValidateAllRecords) before the class is created
 
         ClassSpreadsheet spreadsheet = new ClassSpreadsheet();
         spreadsheet.setFileName(filename);
@@ -401,30 +383,24 @@ public class ClassSpreadsheetService {
         spreadsheet.setAssessmentMaxValues(maxAssessmentValues);
         spreadsheet.setIsGoogleSheets(isGoogleSheets);
         spreadsheet.setSharedLink(sharedLink);
-        spreadsheet.setDataHash(calculateDataHash(records));
+        spreadsheet.setDataHash(ContentFingerprint.rows(records));
         // Create grade records
 
         spreadsheet.setVisibleAssessments(new HashSet<>());
 
+        IngestStudents students = new IngestStudents(records.stream().map(this::getStudentNumber).toList());
         List<GradeRecordsEntity> gradeRecords = new ArrayList<>();
 
         for (Map<String, String> record : records) {
             String studentFirstName = extractFirstName(record);
             String studentLastName = extractLastName(record);
 
-            String studentNumber = record.get("Student Number");
-
+            String studentNumber = getStudentNumber(record);
 
-            if (studentNumber == null) {
-                studentNumber = record.get("StudentNumber");
-            }
-            logger.info("Processing record for student number: {}", studentNumber);
-            logger.info("First Name: {}, Last Name: {}", studentFirstName, studentLastName);
-            // Create the grade record with student association
-            GradeRecordsEntity gradeRecord = createGradeRecordWithStudentAssociation(
+            // Create the grade record with student association; it is inserted with the spreadsheet
+            GradeRecordsEntity gradeRecord = buildGradeRecord(
                     studentNumber,
-                    studentFirstName,
-                    studentLastName,
+                    students.resolve(studentNumber, studentFirstName, studentLastName),
                     spreadsheet,
                     record
             );
@@ -438,15 +414,29 @@ public class ClassSpreadsheetService {
         spreadsheet.setGradeRecords(gradeRecords);
         logger.info("Valid spreadsheet uploaded. {} records processed successfully.", records.size());
 
-        return classSpreadsheetRepository.save(spreadsheet);
+        students.saveCreated();
+        ClassSpreadsheet savedSpreadsheet = classSpreadsheetRepository.save(spreadsheet);
+        publishGradesChanged(savedSpreadsheet);
+        return savedSpreadsheet;
     }
 
     // ORIGINAL METHOD FOR SAVING RECORDS FROM UPLOADS
+    @Transactional
     public ClassSpreadsheet saveRecord(String filename, TeacherEntity teacher,
                                        List<Map<String, String>> records, ClassEntity classEntity, Map<String, Integer> maxAssessmentValues) {
+        return saveRecord(filename, teacher, records, classEntity, maxAssessmentValues, null);
+    }
 
-        // PRE VALIDATE ALL GRADES AGAINST MAX VALUES
-        preValidateAllRecords(records, maxAssessmentValues);
+    /**
+     * Save an uploaded file's records; {@code dataHash} is the fingerprint of the uploaded file, used
+     * to recognise identical re-uploads.
+     */
+    @Transactional
+    public ClassSpreadsheet saveRecord(String filename, TeacherEntity teacher,
+                                       List<Map<String, String>> records, ClassEntity classEntity, Map<String, Integer> maxAssessmentValues,
+                                       String dataHash) {
+
+        // Grades are validated by the caller (preValidateAllRecords) before the class is created
 
         ClassSpreadsheet spreadsheet = new ClassSpreadsheet();
         spreadsheet.setFileName(filename);
@@ -454,10 +444,12 @@ public class ClassSpreadsheetService {
         spreadsheet.setClassName(classEntity.getClassName()); // Set the class name from ClassEntity
         spreadsheet.setClassEntity(classEntity);
         spreadsheet.setAssessmentMaxValues(maxAssessmentValues);
+        spreadsheet.setDataHash(dataHash);
         // Create grade records
 
         spreadsheet.setVisibleAssessments(new HashSet<>());
 
+        IngestStudents students = new IngestStudents(records.stream().map(record -> record.get("Student Number")).toList());
         List<GradeRecordsEntity> gradeRecords = new ArrayList<>();
         int skippedCount = 0; // 1. Initialize counter
 
@@ -471,11 +463,10 @@ public class ClassSpreadsheetService {
                 continue;
             }
 
-            // Create the grade record with student association
-            GradeRecordsEntity gradeRecord = createGradeRecordWithStudentAssociation(
+            // Create the grade record with student association; it is inserted with the spreadsheet
+            GradeRecordsEntity gradeRecord = buildGradeRecord(
                     studentNumber,
-                    studentFirstName,
-                    studentLastName,
+                    students.resolve(studentNumber, studentFirstName, studentLastName),
                     spreadsheet,
                     record
             );
@@ -490,50 +481,36 @@ public class ClassSpreadsheetService {
             logger.warn("Spreadsheet uploaded with {} missing student numbers. These records were skipped.", skippedCount);
         }
         logger.info("Valid spreadsheet uploaded. {} records processed successfully.", records.size());
-        return classSpreadsheetRepository.save(spreadsheet);
+        students.saveCreated();
+        ClassSpreadsheet savedSpreadsheet = classSpreadsheetRepository.save(spreadsheet);
+        publishGradesChanged(savedSpreadsheet);
+        return savedSpreadsheet;
     }
 
     public ClassSpreadsheet updateSpreadsheet(ClassSpreadsheet spreadsheet, List<Map<String, String>> updatedRecords, Map<String, Integer> maxAssessmentValues) {
+        return syncSpreadsheet(spreadsheet, updatedRecords, maxAssessmentValues).getSpreadsheet();
+    }
+
+    /**
+     * Bring a stored spreadsheet in line with the latest rows from its source: only changed students
+     * are written and students no longer in the sheet are removed.
+     */
+    @Transactional
+    public SpreadsheetSyncResult syncSpreadsheet(ClassSpreadsheet spreadsheet, List<Map<String, String>> updatedRecords, Map<String, Integer> maxAssessmentValues) {
         ClassSpreadsheet existingSpreadsheet = classSpreadsheetRepository.findByIdWithGradeRecords(spreadsheet.getId()).orElseThrow(() -> new RuntimeException("Class spreadsheet not found"));
 
-        Map<String, GradeRecordsEntity> existingRecordsByStudentId = new HashMap<>();
-        for (GradeRecordsEntity record : existingSpreadsheet.getGradeRecords()) {
-            existingRecordsByStudentId.put(record.getStudentNumber(), record);
+        if (maxAssessmentValues != null) {
+            existingSpreadsheet.setAssessmentMaxValues(maxAssessmentValues);
         }
-        List<GradeRecordsEntity> updatedGradeRecords = new ArrayList<>();
-        for (Map<String, String> record : updatedRecords) {
-            String studentNumber = record.get("Student Number");
-            String studentFirstName = record.get("First Name");
-            String studentLastName = record.get("Last Name");
-
-            if (studentNumber == null) {
-                logger.warn("Skipping record with missing student number");
-                continue;
-            }
-
-            // Check if this student already exists in the spreadsheet
-            if (existingRecordsByStudentId.containsKey(studentNumber)) {
-                // Update existing grade record
-                GradeRecordsEntity existingRecord = existingRecordsByStudentId.get(studentNumber);
-                existingRecord.setGrades(record);
-                updatedGradeRecords.add(existingRecord);
-            } else {
-                // Create new grade record for new student
-                GradeRecordsEntity newRecord = createGradeRecordWithStudentAssociation(
-                        studentNumber,
-                        studentFirstName,
-                        studentLastName,
-                        existingSpreadsheet,
-                        record
-                );
-                updatedGradeRecords.add(newRecord);
-            }
+        if (spreadsheet.getDataHash() != null) {
+            existingSpreadsheet.setDataHash(spreadsheet.getDataHash());
         }
 
-        // Update the spreadsheet with the new records
-        existingSpreadsheet.setGradeRecords(updatedGradeRecords);
-        return classSpreadsheetRepository.save(existingSpreadsheet);
+        SpreadsheetSyncResult result = applyGradeRecordDiff(existingSpreadsheet, updatedRecords, GradeRecordDiff.REPLACE_ROW, true);
+        publishGradesChanged(result.getSpreadsheet());
+        return result;
     }
+
     @Transactional
     public ClassSpreadsheet updateSpreadsheet(Long spreadsheetId, MultipartFile file, TeacherEntity teacher) throws IOException {
         // Fetch the existing spreadsheet
@@ -541,60 +518,36 @@ public class ClassSpreadsheetService {
                 .orElseThrow(() -> new RuntimeException("Class spreadsheet not found"));
 
         // Parse the new data from file
-        List<Map<String, String>> updatedRecords = parseClassRecord(file);
-        Map<String, Integer> updatedMaxValues = getMaxAssessmentValue(file);
+        return updateSpreadsheet(existingSpreadsheet, file.getOriginalFilename(), parseSpreadsheet(file), null);
+    }
+
+    /**
+     * Update a spreadsheet from an already parsed (and validated) file. {@code dataHash}, when
+     * given, is the fingerprint of that file.
+     */
+    @Transactional
+    public ClassSpreadsheet updateSpreadsheet(Long spreadsheetId, String fileName, ParsedSpreadsheet parsed, String dataHash) {
+        ClassSpreadsheet existingSpreadsheet = classSpreadsheetRepository.findById(spreadsheetId)
+                .orElseThrow(() -> new RuntimeException("Class spreadsheet not found"));
+        return updateSpreadsheet(existingSpreadsheet, fileName, parsed, dataHash);
+    }
+
+    private ClassSpreadsheet updateSpreadsheet(ClassSpreadsheet existingSpreadsheet, String fileName, ParsedSpreadsheet parsed, String dataHash) {
+        List<Map<String, String>> updatedRecords = parsed.getRecords();
+        Map<String, Integer> updatedMaxValues = parsed.getMaxAssessmentValues();
 
         // Update basic spreadsheet information
-        String fileName = file.getOriginalFilename();
         if (fileName != null) {
             existingSpreadsheet.setFileName(fileName);
             existingSpreadsheet.setClassName(extractFileName(fileName));
         }
 
         existingSpreadsheet.setAssessmentMaxValues(updatedMaxValues);
+        setUploadFingerprint(existingSpreadsheet, dataHash);
 
-        // Create a map of existing grade records by student number for quick lookup
-        Map<String, GradeRecordsEntity> existingRecordsByStudentId = new HashMap<>();
-        for (GradeRecordsEntity record : existingSpreadsheet.getGradeRecords()) {
-            existingRecordsByStudentId.put(record.getStudentNumber(), record);
-        }
-
-        // Process updated records
-        List<GradeRecordsEntity> updatedGradeRecords = new ArrayList<>();
-        for (Map<String, String> record : updatedRecords) {
-            String studentNumber = record.get("Student Number");
-            String studentFirstName = record.get("First Name");
-            String studentLastName = record.get("Last Name");
-
-            if (studentNumber == null) {
-                logger.warn("Skipping record with missing student number");
-                continue;
-            }
-
-            // Check if this student already exists in the spreadsheet
-            if (existingRecordsByStudentId.containsKey(studentNumber)) {
-                // Update existing grade record
-                GradeRecordsEntity existingRecord = existingRecordsByStudentId.get(studentNumber);
-                existingRecord.setGrades(record);
-                updatedGradeRecords.add(existingRecord);
-            } else {
-                // Create new grade record for new student
-                GradeRecordsEntity newRecord = createGradeRecordWithStudentAssociation(
-                        studentNumber,
-                        studentFirstName,
-                        studentLastName,
-                        existingSpreadsheet,
-                        record
-                );
-                updatedGradeRecords.add(newRecord);
-            }
-        }
-
-        // Update the spreadsheet with the new records
-        existingSpreadsheet.setGradeRecords(updatedGradeRecords);
-
-        // Save and return the updated spreadsheet
-        return classSpreadsheetRepository.save(existingSpreadsheet);
+        SpreadsheetSyncResult result = applyGradeRecordDiff(existingSpreadsheet, updatedRecords, GradeRecordDiff.REPLACE_ROW, true);
+        publishGradesChanged(result.getSpreadsheet());
+        return result.getSpreadsheet();
     }
 
     public List<ClassSpreadsheet> getClassSpreadSheetByClassId(int classId) {
@@ -624,64 +577,29 @@ public class ClassSpreadsheetService {
         }
         ClassSpreadsheet classSpreadsheetToUpdate = existingSpreadsheets.get(0);
 
-        List<Map<String, String>> newRecordsMaps = parseClassRecord(file);
-        Map<String, Integer> newMaxAssessmentValues = getMaxAssessmentValue(file);
+        ParsedSpreadsheet parsed = parseSpreadsheet(file);
+        List<Map<String, String>> newRecordsMaps = parsed.getRecords();
+        Map<String, Integer> newMaxAssessmentValues = parsed.getMaxAssessmentValues();
 
         classSpreadsheetToUpdate.setFileName(file.getOriginalFilename()); // Update filename
 
         Map<String, Integer> mergedMaxValues = new HashMap<>(classSpreadsheetToUpdate.getAssessmentMaxValues() != null ? classSpreadsheetToUpdate.getAssessmentMaxValues() : new HashMap<>());
         mergedMaxValues.putAll(newMaxAssessmentValues);
         classSpreadsheetToUpdate.setAssessmentMaxValues(mergedMaxValues);
+        // The merged sheet no longer matches any single uploaded file
+        setUploadFingerprint(classSpreadsheetToUpdate, null);
 
-        Map<String, GradeRecordsEntity> currentGradeRecordsMap = new HashMap<>();
-        if (classSpreadsheetToUpdate.getGradeRecords() != null) {
-            for (GradeRecordsEntity gre : classSpreadsheetToUpdate.getGradeRecords()) {
-                if (gre.getStudentNumber() != null) {
-                    currentGradeRecordsMap.put(gre.getStudentNumber(), gre);
-                }
-            }
-        } else {
-            classSpreadsheetToUpdate.setGradeRecords(new ArrayList<>());
-        }
-
+        // Non-empty cells overwrite stored grades; students missing from the file are kept
+        SpreadsheetSyncResult result = applyGradeRecordDiff(classSpreadsheetToUpdate, newRecordsMaps, GradeRecordDiff.MERGE_NON_EMPTY, false);
 
         Set<StudentEntity> studentsInClass = existingClass.getStudents() != null ? new HashSet<>(existingClass.getStudents()) : new HashSet<>();
-
-        for (Map<String, String> newRecordMap : newRecordsMaps) {
-            String studentNumber = newRecordMap.get("Student Number");
-            String studentFirstName = newRecordMap.get("First Name");
-            String studentLastName = newRecordMap.get("Last Name");
-
-            if (studentNumber == null || studentNumber.trim().isEmpty()) {
-                logger.warn("Skipping record due to missing student number: {}", newRecordMap);
-                continue;
-            }
-
-            GradeRecordsEntity gradeRecordToUpdate = currentGradeRecordsMap.get(studentNumber);
-
-            if (gradeRecordToUpdate != null) {
-                Map<String, String> mergedGrades = new HashMap<>(gradeRecordToUpdate.getGrades());
-                newRecordMap.forEach((key, value) -> {
-                    if (value != null && !value.trim().isEmpty()) {
-                        mergedGrades.put(key, value);
-                    }
-                });
-                gradeRecordToUpdate.setGrades(mergedGrades);
-            } else {
-                gradeRecordToUpdate = createGradeRecordWithStudentAssociation(
-                        studentNumber, studentFirstName, studentLastName, classSpreadsheetToUpdate, newRecordMap);
-                classSpreadsheetToUpdate.getGradeRecords().add(gradeRecordToUpdate);
-            }
-            if (gradeRecordToUpdate.getStudent() != null) {
-                studentsInClass.add(gradeRecordToUpdate.getStudent());
-            }
-        }
-
+        studentsInClass.addAll(studentsOf(result.getSpreadsheet().getGradeRecords()));
         existingClass.setStudents(studentsInClass);
         existingClass.setUpdatedAt(new Date());
         classRepository.save(existingClass);
 
-        return classSpreadsheetRepository.save(classSpreadsheetToUpdate);
+        publishGradesChanged(result.getSpreadsheet());
+        return result.getSpreadsheet();
     }
 
     @Transactional
@@ -696,53 +614,115 @@ public class ClassSpreadsheetService {
         }
         ClassSpreadsheet spreadsheetToReplace = existingSpreadsheets.get(0);
 
-        // Delete old grade records. Clearing the collection and relying on orphanRemoval=true is cleaner.
-        if (spreadsheetToReplace.getGradeRecords() != null) {
-            gradeRecordRepository.deleteAll(spreadsheetToReplace.getGradeRecords()); // Explicitly delete
-            spreadsheetToReplace.getGradeRecords().clear(); // Clear the collection
-        } else {
-            spreadsheetToReplace.setGradeRecords(new ArrayList<>());
-        }
-        // Flush to ensure deletes are processed before new inserts, if necessary,
-        // especially if student numbers could be re-used immediately (though less likely with UUIDs or sequences for IDs).
-        // classSpreadsheetRepository.flush(); // If issues persist with constraints
-
-        List<Map<String, String>> newRecordsMap = parseClassRecord(file);
-        Map<String, Integer> newMaxAssessmentValues = getMaxAssessmentValue(file);
+        ParsedSpreadsheet parsed = parseSpreadsheet(file);
+        List<Map<String, String>> newRecordsMap = parsed.getRecords();
+        Map<String, Integer> newMaxAssessmentValues = parsed.getMaxAssessmentValues();
 
         spreadsheetToReplace.setFileName(file.getOriginalFilename());
         // spreadsheetToReplace.setClassName(extractFileName(file.getOriginalFilename())); // ClassName of ClassSpreadsheet entity, not ClassEntity
         spreadsheetToReplace.setAssessmentMaxValues(newMaxAssessmentValues);
+        setUploadFingerprint(spreadsheetToReplace, null);
         // uploadedBy should be the same teacher
 
-        List<GradeRecordsEntity> newGradeRecordsList = new ArrayList<>();
-        Set<StudentEntity> studentsInClass = new HashSet<>();
+        // The file replaces the sheet: unchanged students keep their records, removed students are deleted
+        SpreadsheetSyncResult result = applyGradeRecordDiff(spreadsheetToReplace, newRecordsMap, GradeRecordDiff.REPLACE_ROW, true);
 
-        for (Map<String, String> recordMap : newRecordsMap) {
-            String studentNumber = recordMap.get("Student Number");
-            String studentFirstName = recordMap.get("First Name");
-            String studentLastName = recordMap.get("Last Name");
+        existingClass.setStudents(studentsOf(result.getSpreadsheet().getGradeRecords()));
+        existingClass.setUpdatedAt(new Date());
+        classRepository.save(existingClass);
 
-            if (studentNumber == null || studentNumber.trim().isEmpty()) {
-                logger.warn("Skipping record in replace due to missing student number: {}", recordMap);
-                continue;
-            }
+        publishGradesChanged(result.getSpreadsheet());
+        return result.getSpreadsheet();
+    }
 
-            GradeRecordsEntity newGradeRecord = createGradeRecordWithStudentAssociation(
-                    studentNumber, studentFirstName, studentLastName, spreadsheetToReplace, recordMap
-            );
-            newGradeRecordsList.add(newGradeRecord);
-            if (newGradeRecord.getStudent() != null) {
-                studentsInClass.add(newGradeRecord.getStudent());
+    /**
+     * Record the fingerprint of the file a spreadsheet was last replaced with ({@code null} when
+     * unknown), so an identical re-upload can be recognised. Google Sheets keep their own row
+     * fingerprint in the same column for change polling, which a file upload doesn't touch.
+     */
+    private static void setUploadFingerprint(ClassSpreadsheet spreadsheet, String dataHash) {
+        if (!Boolean.TRUE.equals(spreadsheet.getIsGoogleSheets())) {
+            spreadsheet.setDataHash(dataHash);
+        }
+    }
+
+    /**
+     * Apply a row diff to a spreadsheet's grade records: insert new students, update changed rows
+     * and delete removed ones (unlinking any reports that point at them). Unchanged records are marked read-only so Hibernate skips their
+     * dirty check and never rewrites their grades.
+     */
+    private SpreadsheetSyncResult applyGradeRecordDiff(ClassSpreadsheet spreadsheet, List<Map<String, String>> rows,
+                                                       BinaryOperator<Map<String, String>> merge, boolean deleteMissing) {
+        if (spreadsheet.getGradeRecords() == null) {
+            spreadsheet.setGradeRecords(new ArrayList<>());
+        }
+        GradeRecordDiff diff = GradeRecordDiff.compute(spreadsheet.getGradeRecords(), rows, merge, deleteMissing);
+        if (diff.getSkipped() > 0) {
+            logger.warn("Skipping {} records with missing student number", diff.getSkipped());
+        }
+
+        IngestStudents students = new IngestStudents(diff.getInserts().stream().map(row -> row.get("Student Number")).toList());
+        List<GradeRecordsEntity> insertedRecords = new ArrayList<>(diff.getInserts().size());
+        for (Map<String, String> row : diff.getInserts()) {
+            String studentNumber = row.get("Student Number");
+            StudentEntity student = students.resolve(studentNumber, row.get("First Name"), row.get("Last Name"));
+            insertedRecords.add(buildGradeRecord(studentNumber, student, spreadsheet, row));
+        }
+        students.saveCreated();
+
+        for (GradeRecordDiff.Update update : diff.getUpdates()) {
+            update.record().setGrades(update.grades());
+            update.record().setRowHash(update.rowHash());
+        }
+
+        if (!diff.getDeletes().isEmpty()) {
+            Set<GradeRecordsEntity> deletes = Collections.newSetFromMap(new IdentityHashMap<>());
+            deletes.addAll(diff.getDeletes());
+            spreadsheet.getGradeRecords().removeIf(deletes::contains);
+            // Reports written for a removed student keep their student and class but lose the record link
+            List<Long> deletedIds = diff.getDeletes().stream().map(GradeRecordsEntity::getId).filter(Objects::nonNull).toList();
+            if (!deletedIds.isEmpty()) {
+                reportRepository.detachGradeRecords(deletedIds);
+            }
+            gradeRecordRepository.deleteAll(diff.getDeletes());
+        }
+        gradeRecordRepository.saveAll(insertedRecords);
+        spreadsheet.getGradeRecords().addAll(insertedRecords);
+
+        Session session = entityManager.unwrap(Session.class);
+        for (GradeRecordsEntity record : diff.getUnchanged()) {
+            if (record.getRowHash() == null) {
+                // One-time backfill for records saved before row hashes were stored
+                record.setRowHash(ContentFingerprint.row(record.getGrades()));
+            } else if (session.contains(record)) {
+                session.setReadOnly(record, true);
             }
         }
-        spreadsheetToReplace.setGradeRecords(newGradeRecordsList); // Set the new list
 
-        existingClass.setStudents(studentsInClass);
-        existingClass.setUpdatedAt(new Date());
-        classRepository.save(existingClass);
+        ClassSpreadsheet savedSpreadsheet = classSpreadsheetRepository.save(spreadsheet);
+        SpreadsheetSyncResult result = new SpreadsheetSyncResult(savedSpreadsheet, insertedRecords.size(),
+                diff.getUpdates().size(), diff.getDeletes().size(), diff.getUnchanged().size());
+        logger.info("Synced spreadsheet '{}': {}", savedSpreadsheet.getFileName(), result);
+        return result;
+    }
 
-        return classSpreadsheetRepository.save(spreadsheetToReplace);
+    private static Set<StudentEntity> studentsOf(Collection<GradeRecordsEntity> records) {
+        Set<StudentEntity> students = new HashSet<>();
+        for (GradeRecordsEntity record : records) {
+            if (record.getStudent() != null) {
+                students.add(record.getStudent());
+            }
+        }
+        return students;
+    }
+
+    /**
+     * Let listeners (computed grades) refresh the class once the surrounding transaction commits.
+     */
+    private void publishGradesChanged(ClassSpreadsheet spreadsheet) {
+        if (spreadsheet.getClassEntity() != null) {
+            eventPublisher.publishEvent(new GradesChangedEvent(spreadsheet.getClassEntity().getClassId()));
+        }
     }
 
     public Map<String, Integer> getMaxAssessmentValuesByClassId(Integer classId) {
@@ -756,55 +736,15 @@ public class ClassSpreadsheetService {
     /**
      * Pre-validates all records for grade constraints before saving.
      * Throws GradeValidationException if any validation errors are found.
+     * Large sheets are checked in parallel; errors are reported in row order. Call it once per
+     * ingest, before saveRecord, which no longer validates again.
      *
      * @param records List of grade records to validate
      * @param maxAssessmentValues Map of assessment names to their maximum allowed values
      * @throws GradeValidationException if any grades exceed maximum values
      */
     public void preValidateAllRecords(List<Map<String, String>> records, Map<String, Integer> maxAssessmentValues) {
-        List<GradeErrorDetail> validationErrors = new ArrayList<>();
-        int rowNumber = 3; // Starting row number (assuming headers are in rows 1-2)
-
-        for (Map<String, String> record : records) {
-            String studentNumber = getStudentNumber(record);
-
-            // Validate each assessment in the record
-            for (Map.Entry<String, String> entry : record.entrySet()) {
-                String assessmentName = entry.getKey();
-                String gradeValue = entry.getValue();
-
-                // Skip non-assessment fields
-                if (assessmentName.equals("First Name") || assessmentName.equals("Last Name") ||
-                        assessmentName.equals("Student Number") || assessmentName.equals("StudentNumber")) {
-                    continue;
-                }
-
-                // Check if this assessment has a maximum value defined
-                if (maxAssessmentValues.containsKey(assessmentName)) {
-                    Integer maxValue = maxAssessmentValues.get(assessmentName);
-
-                    if (gradeValue != null && !gradeValue.trim().isEmpty()) {
-                        try {
-                            double grade = Double.parseDouble(gradeValue.trim());
-                            if (grade > maxValue) {
-                                validationErrors.add(new GradeErrorDetail(
-                                        String.format("Grade %.1f exceeds maximum of %d", grade, maxValue),
-                                        rowNumber,
-                                        studentNumber,
-                                        assessmentName,  // Now we have access to the assessment name
-                                        grade,           // Actual grade value
-                                        maxValue.doubleValue()  // Max value
-                                ));
-                            }
-                        } catch (NumberFormatException e) {
-                            // Skip validation for non-numeric grades
-                            logger.debug("Skipping grade validation for non-numeric value: {} in assessment: {}", gradeValue, assessmentName);
-                        }
-                    }
-                }
-            }
-            rowNumber++;
-        }
+        List<GradeErrorDetail> validationErrors = GradeRecordValidator.validate(records, maxAssessmentValues);
 
         // If there are any validation errors, throw an exception with all errors
         if (!validationErrors.isEmpty()) {
@@ -892,14 +832,6 @@ public class ClassSpreadsheetService {
         return "Unknown";
     }
 
-    private String calculateDataHash(List<Map<String, String>> records) {
-        StringBuilder dataBuilder = new StringBuilder();
-        for (Map<String, String> record : records) {
-            dataBuilder.append(record.toString());
-        }
-        return String.valueOf(dataBuilder.toString().hashCode());
-    }
-
     //VALIDATION
     public void validateHeadersAndMaxValues(List<String> headers, List<String> maxValueRow) {
         if (headers == null || headers.isEmpty()) {
@@ -0,0 +1,115 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 128-bit content fingerprints (SHA-256 truncated to 16 bytes, hex encoded) for spreadsheet rows,
+ * whole sheets and uploaded files. Columns and rows are hashed in a canonical order so the result doesn't depend
+ * on map iteration order, and values are streamed into the digest instead of being concatenated.
+ */
+public final class ContentFingerprint {
+    private static final int FINGERPRINT_BYTES = 16;
+    private static final byte FIELD_SEPARATOR = 0x1F;
+    private static final byte ROW_SEPARATOR = 0x1E;
+    private static final byte NULL_MARKER = 0x00;
+    private static final int FILE_BUFFER_BYTES = 64 * 1024;
+
+    private ContentFingerprint() {
+    }
+
+    /**
+     * Fingerprint of one row, keyed by header.
+     */
+    public static String row(Map<String, String> row) {
+        MessageDigest digest = newDigest();
+        update(digest, row);
+        return finish(digest);
+    }
+
+    /**
+     * Fingerprint of a whole sheet. Row fingerprints are sorted before being combined, so reordering
+     * rows is not a change; only 16 bytes per row are kept while hashing.
+     */
+    public static String rows(List<Map<String, String>> rows) {
+        MessageDigest digest = newDigest();
+        byte[][] rowHashes = new byte[rows.size()][];
+        for (int i = 0; i < rowHashes.length; i++) {
+            update(digest, rows.get(i));
+            // digest() also resets it for the next row
+            rowHashes[i] = Arrays.copyOf(digest.digest(), FINGERPRINT_BYTES);
+        }
+        Arrays.sort(rowHashes, Arrays::compare);
+        for (byte[] rowHash : rowHashes) {
+            digest.update(rowHash);
+        }
+        return finish(digest);
+    }
+
+    /**
+     * Fingerprint of a file's raw bytes, read through a direct buffer so large uploads aren't copied
+     * onto the heap. Used to recognise a re-upload of the exact same file before parsing it.
+     */
+    public static String file(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(FILE_BUFFER_BYTES);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return finish(digest);
+    }
+
+    static void update(MessageDigest digest, Map<String, String> row) {
+        if (row == null) {
+            digest.update(NULL_MARKER);
+            digest.update(ROW_SEPARATOR);
+            return;
+        }
+        List<String> columns = new ArrayList<>(row.keySet());
+        columns.sort(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (String column : columns) {
+            updateValue(digest, column);
+            updateValue(digest, row.get(column));
+        }
+        digest.update(ROW_SEPARATOR);
+    }
+
+    private static void updateValue(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update(NULL_MARKER);
+        } else {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update(FIELD_SEPARATOR);
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE is required to provide SHA-256
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static String finish(MessageDigest digest) {
+        byte[] hash = digest.digest();
+        return HexFormat.of().formatHex(hash, 0, FINGERPRINT_BYTES);
+    }
+}
@@ -0,0 +1,259 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import org.apache.poi.poifs.filesystem.FileMagic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads CSV and TSV class records (header row, max-value row, then one row per student) without
+ * POI. The file is memory-mapped and scanned byte by byte; only field values are decoded into
+ * strings. Quoting follows RFC 4180 and the input is expected to be UTF-8 (a BOM is skipped).
+ * <p>
+ * The result has the same shape as {@link ClassRecordWorkbookReader}: numeric max values are
+ * truncated to int, and cell values are kept as text, like a text-formatted workbook column.
+ */
+final class DelimitedClassRecordReader {
+    // Enough of the file to find the header row when sniffing
+    private static final int SNIFF_BYTES = 8192;
+    private static final byte[] DELIMITERS = {'\t', ',', ';'};
+    private static final byte QUOTE = '"';
+
+    private final MappedByteBuffer buffer;
+    private final byte delimiter;
+    private byte[] scratch = new byte[256];
+
+    private DelimitedClassRecordReader(MappedByteBuffer buffer, byte delimiter) {
+        this.buffer = buffer;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * The delimiter of a CSV/TSV file, or {@code null} when the file is a workbook or doesn't look
+     * like delimited text (binary content, or no delimiter in the header row).
+     */
+    static Character sniffDelimiter(Path file) throws IOException {
+        FileMagic magic = FileMagic.valueOf(file.toFile());
+        if (magic == FileMagic.OOXML || magic == FileMagic.OLE2) {
+            return null;
+        }
+
+        byte[] head;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            head = new byte[(int) Math.min(SNIFF_BYTES, channel.size())];
+            channel.read(ByteBuffer.wrap(head));
+        }
+
+        int[] counts = new int[DELIMITERS.length];
+        boolean quoted = false;
+        for (byte b : head) {
+            if (b == 0) {
+                return null; // Binary file
+            }
+            if (b == QUOTE) {
+                quoted = !quoted;
+            } else if (!quoted && (b == '\n' || b == '\r')) {
+                break;
+            } else if (!quoted) {
+                for (int d = 0; d < DELIMITERS.length; d++) {
+                    if (b == DELIMITERS[d]) {
+                        counts[d]++;
+                    }
+                }
+            }
+        }
+
+        int best = -1;
+        for (int d = 0; d < DELIMITERS.length; d++) {
+            if (counts[d] > 0 && (best < 0 || counts[d] > counts[best])) {
+                best = d;
+            }
+        }
+        return best < 0 ? null : (char) DELIMITERS[best];
+    }
+
+    /**
+     * Read headers, max values and records. The validator receives the header row and the raw
+     * max-value row before any data row is read.
+     */
+    static ParsedSpreadsheet read(Path file, char delimiter, BiConsumer<List<String>, List<String>> validator) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Spreadsheet is too large: " + channel.size() + " bytes");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new DelimitedClassRecordReader(buffer, (byte) delimiter).parse(validator);
+        }
+    }
+
+    private ParsedSpreadsheet parse(BiConsumer<List<String>, List<String>> validator) {
+        skipByteOrderMark();
+
+        List<String> headers = nextRow();
+        if (headers == null) {
+            headers = new ArrayList<>();
+        }
+        // Trailing empty header cells are formatting, not columns
+        while (!headers.isEmpty() && headers.get(headers.size() - 1).trim().isEmpty()) {
+            headers.remove(headers.size() - 1);
+        }
+
+        Map<String, Integer> maxAssessmentValues = new HashMap<>();
+        List<String> maxRow = new ArrayList<>();
+        List<String> maxCells = nextRow();
+        if (maxCells != null) {
+            for (int i = 0; i < headers.size(); i++) {
+                String cell = i < maxCells.size() ? maxCells.get(i).trim() : "";
+                Integer maxValue = parseMaxValue(cell);
+                if (maxValue != null) {
+                    maxRow.add(String.valueOf(maxValue));
+                    maxAssessmentValues.put(headers.get(i), maxValue);
+                } else {
+                    maxRow.add(cell);
+                }
+            }
+        }
+        validator.accept(headers, maxRow);
+
+        List<Map<String, String>> records = new ArrayList<>();
+        List<String> cells;
+        while ((cells = nextRow()) != null) {
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < headers.size(); i++) {
+                record.put(headers.get(i), i < cells.size() ? cells.get(i) : "");
+            }
+            records.add(record);
+        }
+        return new ParsedSpreadsheet(headers, maxAssessmentValues, records);
+    }
+
+    private static Integer parseMaxValue(String cell) {
+        if (cell.isEmpty()) {
+            return null;
+        }
+        try {
+            return (int) Double.parseDouble(cell);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void skipByteOrderMark() {
+        if (buffer.remaining() >= 3 && (buffer.get(0) & 0xFF) == 0xEF
+                && (buffer.get(1) & 0xFF) == 0xBB && (buffer.get(2) & 0xFF) == 0xBF) {
+            buffer.position(3);
+        }
+    }
+
+    /**
+     * The next non-empty row, or {@code null} at the end of the file. Empty lines are skipped like
+     * missing rows in a workbook.
+     */
+    private List<String> nextRow() {
+        while (buffer.hasRemaining()) {
+            byte next = buffer.get(buffer.position());
+            if (next == '\n' || next == '\r') {
+                skipLineEnd();
+                continue;
+            }
+            List<String> cells = new ArrayList<>();
+            while (true) {
+                cells.add(nextField());
+                if (!buffer.hasRemaining()) {
+                    return cells;
+                }
+                byte terminator = buffer.get();
+                if (terminator != delimiter) {
+                    // Line end: consume the \n of a \r\n pair
+                    if (terminator == '\r' && buffer.hasRemaining() && buffer.get(buffer.position()) == '\n') {
+                        buffer.get();
+                    }
+                    return cells;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void skipLineEnd() {
+        byte b = buffer.get();
+        if (b == '\r' && buffer.hasRemaining() && buffer.get(buffer.position()) == '\n') {
+            buffer.get();
+        }
+    }
+
+    /**
+     * Decode the field at the current position, leaving the buffer on its delimiter or line end.
+     */
+    private String nextField() {
+        int start = buffer.position();
+        if (!buffer.hasRemaining() || buffer.get(start) != QUOTE) {
+            int end = start;
+            int limit = buffer.limit();
+            while (end < limit) {
+                byte b = buffer.get(end);
+                if (b == delimiter || b == '\n' || b == '\r') {
+                    break;
+                }
+                end++;
+            }
+            buffer.position(end);
+            return decode(start, end);
+        }
+
+        // Quoted field: copy the content into scratch, turning "" into "
+        buffer.position(start + 1);
+        int length = 0;
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == QUOTE) {
+                if (buffer.hasRemaining() && buffer.get(buffer.position()) == QUOTE) {
+                    buffer.get();
+                } else {
+                    break;
+                }
+            }
+            scratch = ensureCapacity(scratch, length + 1);
+            scratch[length++] = b;
+        }
+        // Anything between the closing quote and the delimiter is kept, as spreadsheet tools do
+        int trailing = buffer.position();
+        int limit = buffer.limit();
+        while (trailing < limit) {
+            byte b = buffer.get(trailing);
+            if (b == delimiter || b == '\n' || b == '\r') {
+                break;
+            }
+            scratch = ensureCapacity(scratch, length + 1);
+            scratch[length++] = b;
+            trailing++;
+        }
+        buffer.position(trailing);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private String decode(int start, int end) {
+        int length = end - start;
+        if (length == 0) {
+            return "";
+        }
+        scratch = ensureCapacity(scratch, length);
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] ensureCapacity(byte[] array, int length) {
+        return length <= array.length ? array : Arrays.copyOf(array, Math.max(length, array.length * 2));
+    }
+}
@@ -0,0 +1,36 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import com.google.auth.oauth2.AccessToken;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code googleSheets} entry of {@code /actuator/health}: down when the Sheets client couldn't be
+ * built or no access token can be obtained. Uses the cached token, so a probe only reaches Google
+ * when the token has expired.
+ */
+@Component
+@RequiredArgsConstructor
+public class GoogleSheetsHealthIndicator implements HealthIndicator {
+    private final GoogleSheetsClient sheetsClient;
+
+    @Override
+    public Health health() {
+        if (!sheetsClient.isAvailable()) {
+            Exception error = sheetsClient.getInitializationError();
+            return error != null ? Health.down(error).build() : Health.down().build();
+        }
+        try {
+            AccessToken token = sheetsClient.currentAccessToken();
+            Health.Builder health = Health.up();
+            if (token != null && token.getExpirationTime() != null) {
+                health.withDetail("tokenExpiresAt", token.getExpirationTime().toInstant());
+            }
+            return health.build();
+        } catch (Exception e) {
+            return Health.down(e).build();
+        }
+    }
+}
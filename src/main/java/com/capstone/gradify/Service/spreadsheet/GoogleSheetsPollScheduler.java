@@ -0,0 +1,183 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import com.capstone.gradify.Entity.records.ClassSpreadsheet;
+import com.capstone.gradify.Repository.records.ClassSpreadsheetRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls Google-linked spreadsheets for changes. Every sheet has its own next-poll time, stored on
+ * {@link ClassSpreadsheet} so the schedule survives restarts and chosen by {@link SheetPollPolicy}:
+ * idle sheets back off exponentially, recently edited sheets and current-term classes are checked
+ * more often. A short tick hands the sheets that are due to a small fetch pool. API calls go
+ * through {@link SheetsApiRateLimiter} and each sheet is written in its own short transaction
+ * ({@link GoogleSpreadsheetService#checkForUpdates(Long)}).
+ */
+@Component
+public class GoogleSheetsPollScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(GoogleSheetsPollScheduler.class);
+    // Spread reschedules by up to this fraction of the interval so sheets don't poll in lockstep
+    private static final double INTERVAL_JITTER = 0.1;
+
+    private final GoogleSpreadsheetService googleSpreadsheetService;
+    private final ClassSpreadsheetService classSpreadsheetService;
+    private final ClassSpreadsheetRepository classSpreadsheetRepository;
+    private final SheetPollPolicy pollPolicy;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final Timer pollLag;
+    private final DistributionSummary sheetsPerCycle;
+    private final Timer changedChecks;
+    private final Timer unchangedChecks;
+    private final Timer failedChecks;
+
+    public GoogleSheetsPollScheduler(GoogleSpreadsheetService googleSpreadsheetService,
+                                     ClassSpreadsheetService classSpreadsheetService,
+                                     ClassSpreadsheetRepository classSpreadsheetRepository,
+                                     @Value("${gradify.sheets.poll.interval:PT5M}") Duration interval,
+                                     @Value("${gradify.sheets.poll.min-interval:PT1M}") Duration minInterval,
+                                     @Value("${gradify.sheets.poll.max-interval:PT24H}") Duration maxInterval,
+                                     @Value("${gradify.sheets.poll.active-term-max-interval:PT1H}") Duration activeTermMaxInterval,
+                                     @Value("${gradify.sheets.poll.recent-edit-window:PT2H}") Duration recentEditWindow,
+                                     @Value("${gradify.sheets.poll.concurrency:4}") int concurrency,
+                                     MeterRegistry registry) {
+        this.googleSpreadsheetService = googleSpreadsheetService;
+        this.classSpreadsheetService = classSpreadsheetService;
+        this.classSpreadsheetRepository = classSpreadsheetRepository;
+        this.pollPolicy = new SheetPollPolicy(interval, minInterval, maxInterval, activeTermMaxInterval, recentEditWindow);
+
+        int workers = Math.max(1, concurrency);
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "sheets-poll-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // Unbounded queue: a sheet is queued at most once at a time (see inFlight)
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+
+        this.pollLag = Timer.builder("gradify.sheets.poll.lag")
+                .description("Delay between a sheet becoming due for polling and its check starting")
+                .register(registry);
+        this.sheetsPerCycle = DistributionSummary.builder("gradify.sheets.poll.cycle.sheets")
+                .description("Google-linked sheets queued for a check per scheduler tick")
+                .register(registry);
+        this.changedChecks = checkTimer(registry, "changed");
+        this.unchangedChecks = checkTimer(registry, "unchanged");
+        this.failedChecks = checkTimer(registry, "failed");
+        Gauge.builder("gradify.sheets.poll.in-flight", inFlight, Set::size)
+                .description("Sheets queued or being checked")
+                .register(registry);
+        logger.info("Google Sheets polling: every {} to {} per sheet, {} concurrent checks", minInterval, maxInterval, workers);
+    }
+
+    private static Timer checkTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("gradify.sheets.poll.check")
+                .description("Time to fetch and compare one Google-linked sheet")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${gradify.sheets.poll.tick-ms:30000}")
+    public void pollDueSheets() {
+        Instant now = Instant.now();
+        List<ClassSpreadsheet> dueSpreadsheets;
+        try {
+            dueSpreadsheets = classSpreadsheetRepository.findGoogleSheetsDueForPoll(now);
+        } catch (Exception e) {
+            logger.error("Error loading Google-linked spreadsheets: {}", e.getMessage());
+            return;
+        }
+
+        int queued = 0;
+        for (ClassSpreadsheet spreadsheet : dueSpreadsheets) {
+            if (!inFlight.add(spreadsheet.getId())) {
+                continue;
+            }
+            executor.execute(() -> check(spreadsheet, now));
+            queued++;
+        }
+
+        sheetsPerCycle.record(queued);
+        if (queued > 0) {
+            logger.debug("Queued {} Google-linked sheets for polling", queued);
+        }
+    }
+
+    private void check(ClassSpreadsheet spreadsheet, Instant tick) {
+        Long spreadsheetId = spreadsheet.getId();
+        // Sheets never polled before (new or pre-dating the schedule) count as due at the tick
+        Instant due = spreadsheet.getNextPollAt() != null ? spreadsheet.getNextPollAt() : tick;
+        int unchangedPolls = spreadsheet.getUnchangedPolls() != null ? spreadsheet.getUnchangedPolls() : 0;
+        Instant lastChangedAt = spreadsheet.getLastChangedAt();
+
+        long start = System.nanoTime();
+        pollLag.record(Duration.between(due, Instant.now()));
+        try {
+            boolean changed = googleSpreadsheetService.checkForUpdates(spreadsheetId);
+            (changed ? changedChecks : unchangedChecks).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (changed) {
+                unchangedPolls = 0;
+                lastChangedAt = Instant.now();
+            } else {
+                unchangedPolls++;
+            }
+        } catch (Exception e) {
+            // A failed check keeps the current backoff
+            failedChecks.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.error("Error checking updates for spreadsheet {}: {}", spreadsheet.getFileName(), e.getMessage());
+        } finally {
+            try {
+                schedule(spreadsheet, unchangedPolls, lastChangedAt);
+            } catch (Exception e) {
+                logger.error("Error scheduling the next poll of spreadsheet {}: {}", spreadsheet.getFileName(), e.getMessage());
+            } finally {
+                inFlight.remove(spreadsheetId);
+            }
+        }
+    }
+
+    private void schedule(ClassSpreadsheet spreadsheet, int unchangedPolls, Instant lastChangedAt) {
+        Instant now = Instant.now();
+        boolean activeTerm = SheetPollPolicy.isActiveTerm(spreadsheet.getClassEntity(),
+                classSpreadsheetService.determineCurrentSemester(), classSpreadsheetService.determineCurrentSchoolYear());
+        Duration delay = pollPolicy.nextDelay(unchangedPolls, lastChangedAt, activeTerm, now);
+        classSpreadsheetRepository.updatePollSchedule(spreadsheet.getId(), now.plus(jittered(delay)), lastChangedAt, unchangedPolls);
+    }
+
+    private static Duration jittered(Duration interval) {
+        long millis = interval.toMillis();
+        long jitter = (long) (millis * INTERVAL_JITTER);
+        if (jitter == 0) {
+            return interval;
+        }
+        return Duration.ofMillis(millis + ThreadLocalRandom.current().nextLong(-jitter, jitter + 1));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,129 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import com.capstone.gradify.Entity.records.GradeRecordsEntity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+
+/**
+ * Row-level difference between the grade records stored for a spreadsheet and the rows of an
+ * incoming copy, matched by student number. Incoming rows are fingerprinted and compared with the
+ * stored row hash; unchanged rows end up in {@link #getUnchanged()} so a sync only writes the
+ * students that actually changed.
+ */
+final class GradeRecordDiff {
+
+    // How an incoming row combines with a stored record's grades
+    static final BinaryOperator<Map<String, String>> REPLACE_ROW = (stored, row) -> row;
+    static final BinaryOperator<Map<String, String>> MERGE_NON_EMPTY = (stored, row) -> {
+        Map<String, String> merged = new HashMap<>(stored != null ? stored : Map.of());
+        row.forEach((key, value) -> {
+            if (value != null && !value.trim().isEmpty()) {
+                merged.put(key, value);
+            }
+        });
+        return merged;
+    };
+
+    record Update(GradeRecordsEntity record, Map<String, String> grades, String rowHash) {
+    }
+
+    private final List<Map<String, String>> inserts = new ArrayList<>();
+    private final List<Update> updates = new ArrayList<>();
+    private final List<GradeRecordsEntity> deletes = new ArrayList<>();
+    private final List<GradeRecordsEntity> unchanged = new ArrayList<>();
+    private int skipped;
+
+    private GradeRecordDiff() {
+    }
+
+    /**
+     * Compare stored records with incoming rows.
+     *
+     * @param merge         new grades for a stored record given its current grades and the incoming row
+     * @param deleteMissing whether stored students that are absent from the incoming rows are deleted
+     */
+    static GradeRecordDiff compute(Collection<GradeRecordsEntity> stored, List<Map<String, String>> incoming,
+                                   BinaryOperator<Map<String, String>> merge, boolean deleteMissing) {
+        GradeRecordDiff diff = new GradeRecordDiff();
+
+        // Last row wins when a student number appears more than once
+        Map<String, Map<String, String>> incomingByStudent = new LinkedHashMap<>();
+        for (Map<String, String> row : incoming) {
+            String studentNumber = row.get("Student Number");
+            if (studentNumber == null || studentNumber.trim().isEmpty()) {
+                diff.skipped++;
+                continue;
+            }
+            incomingByStudent.put(studentNumber, row);
+        }
+
+        Map<String, GradeRecordsEntity> storedByStudent = new HashMap<>();
+        if (stored != null) {
+            for (GradeRecordsEntity record : stored) {
+                GradeRecordsEntity previous = record.getStudentNumber() != null
+                        ? storedByStudent.putIfAbsent(record.getStudentNumber(), record)
+                        : record;
+                // Duplicate or unnumbered stored records can never match a row
+                if (previous != null) {
+                    (deleteMissing ? diff.deletes : diff.unchanged).add(record);
+                }
+            }
+        }
+
+        for (Map.Entry<String, Map<String, String>> entry : incomingByStudent.entrySet()) {
+            GradeRecordsEntity record = storedByStudent.remove(entry.getKey());
+            if (record == null) {
+                diff.inserts.add(entry.getValue());
+                continue;
+            }
+            Map<String, String> grades = merge.apply(record.getGrades(), entry.getValue());
+            String rowHash = ContentFingerprint.row(grades);
+            if (rowHash.equals(storedRowHash(record))) {
+                diff.unchanged.add(record);
+            } else {
+                diff.updates.add(new Update(record, grades, rowHash));
+            }
+        }
+
+        if (deleteMissing) {
+            diff.deletes.addAll(storedByStudent.values());
+        } else {
+            diff.unchanged.addAll(storedByStudent.values());
+        }
+        return diff;
+    }
+
+    /**
+     * The stored fingerprint, or one computed from the grades for records saved before row hashes
+     * were kept.
+     */
+    private static String storedRowHash(GradeRecordsEntity record) {
+        return record.getRowHash() != null ? record.getRowHash() : ContentFingerprint.row(record.getGrades());
+    }
+
+    List<Map<String, String>> getInserts() {
+        return inserts;
+    }
+
+    List<Update> getUpdates() {
+        return updates;
+    }
+
+    List<GradeRecordsEntity> getDeletes() {
+        return deletes;
+    }
+
+    List<GradeRecordsEntity> getUnchanged() {
+        return unchanged;
+    }
+
+    int getSkipped() {
+        return skipped;
+    }
+}
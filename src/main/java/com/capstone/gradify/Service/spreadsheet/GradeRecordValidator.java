@@ -0,0 +1,140 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import com.capstone.gradify.dto.response.GradeErrorDetail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Checks every grade in a sheet against its assessment's max value. The assessment columns are
+ * resolved once per sheet, and large sheets are split into row chunks validated in parallel on the
+ * common fork-join pool. Errors always come back in row order, then column order.
+ */
+final class GradeRecordValidator {
+    // First spreadsheet row holding student data (row 1 is headers, row 2 max values)
+    private static final int FIRST_DATA_ROW = 3;
+    // Below this many cells a sheet is validated on the calling thread
+    private static final int PARALLEL_CELL_THRESHOLD = 20_000;
+    private static final int ROWS_PER_TASK = 256;
+    private static final Set<String> NAME_COLUMNS = Set.of("First Name", "Last Name", "Student Number", "StudentNumber");
+
+    private final List<Map<String, String>> records;
+    private final String[] assessmentNames;
+    private final int[] maxValues;
+
+    private GradeRecordValidator(List<Map<String, String>> records, Map<String, Integer> maxAssessmentValues) {
+        this.records = records;
+        List<String> names = new ArrayList<>(maxAssessmentValues.size());
+        List<Integer> maxima = new ArrayList<>(maxAssessmentValues.size());
+        maxAssessmentValues.forEach((name, max) -> {
+            if (name != null && max != null && !NAME_COLUMNS.contains(name)) {
+                names.add(name);
+                maxima.add(max);
+            }
+        });
+        this.assessmentNames = names.toArray(new String[0]);
+        this.maxValues = maxima.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    static List<GradeErrorDetail> validate(List<Map<String, String>> records, Map<String, Integer> maxAssessmentValues) {
+        GradeRecordValidator validator = new GradeRecordValidator(records, maxAssessmentValues);
+        if (validator.assessmentNames.length == 0 || records.isEmpty()) {
+            return List.of();
+        }
+        if ((long) records.size() * validator.assessmentNames.length < PARALLEL_CELL_THRESHOLD) {
+            return validator.validateRows(0, records.size());
+        }
+        return ForkJoinPool.commonPool().invoke(validator.new RowRangeTask(0, records.size()));
+    }
+
+    private List<GradeErrorDetail> validateRows(int from, int to) {
+        List<GradeErrorDetail> errors = new ArrayList<>();
+        for (int index = from; index < to; index++) {
+            Map<String, String> record = records.get(index);
+            String studentNumber = null;
+            for (int column = 0; column < assessmentNames.length; column++) {
+                double grade = parseGrade(record.get(assessmentNames[column]));
+                if (grade > maxValues[column]) {
+                    if (studentNumber == null) {
+                        studentNumber = record.get("Student Number");
+                        if (studentNumber == null) {
+                            studentNumber = record.get("StudentNumber");
+                        }
+                    }
+                    errors.add(new GradeErrorDetail(
+                            String.format("Grade %.1f exceeds maximum of %d", grade, maxValues[column]),
+                            FIRST_DATA_ROW + index,
+                            studentNumber,
+                            assessmentNames[column],
+                            grade,
+                            maxValues[column]
+                    ));
+                }
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * The numeric grade, or NaN for blank and non-numeric cells (which are not validated). Cells
+     * that can't start a number skip {@code Double.parseDouble} and its exception entirely.
+     */
+    private static double parseGrade(String value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            return Double.NaN;
+        }
+        char first = trimmed.charAt(0);
+        boolean numericStart = (first >= '0' && first <= '9') || first == '.' || first == '-' || first == '+'
+                || first == 'I' || first == 'N'; // Infinity, NaN
+        if (!numericStart) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(trimmed);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private final class RowRangeTask extends RecursiveTask<List<GradeErrorDetail>> {
+        private final int from;
+        private final int to;
+
+        RowRangeTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<GradeErrorDetail> compute() {
+            if (to - from <= ROWS_PER_TASK) {
+                return validateRows(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            RowRangeTask left = new RowRangeTask(from, middle);
+            RowRangeTask right = new RowRangeTask(middle, to);
+            left.fork();
+            List<GradeErrorDetail> rightErrors = right.compute();
+            List<GradeErrorDetail> errors = left.join();
+            // Left half first keeps the errors in row order
+            if (rightErrors.isEmpty()) {
+                return errors;
+            }
+            if (errors.isEmpty()) {
+                return rightErrors;
+            }
+            List<GradeErrorDetail> merged = new ArrayList<>(errors.size() + rightErrors.size());
+            merged.addAll(errors);
+            merged.addAll(rightErrors);
+            return merged;
+        }
+    }
+}
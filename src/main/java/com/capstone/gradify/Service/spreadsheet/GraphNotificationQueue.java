@@ -0,0 +1,212 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import com.capstone.gradify.Entity.subscription.OneDriveSubscription;
+import com.capstone.gradify.Repository.subscription.OneDriveSubscriptionRepository;
+import com.capstone.gradify.dto.response.ChangeNotification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces Microsoft Graph change notifications before syncing. Graph delivers notifications in
+ * bursts (one save in Excel Online often produces several), so each (subscription, item) change is
+ * held for a debounce window and every notification for the same key arriving in that window is
+ * merged into it. When the window closes the change is synced once by
+ * {@link MicrosoftExcelIntegration#processSubscriptionChange(OneDriveSubscription, String)}, with at
+ * most {@code per-user-concurrency} syncs running per user; a change that finds its user busy waits
+ * another window.
+ */
+@Component
+public class GraphNotificationQueue {
+    private static final Logger logger = LoggerFactory.getLogger(GraphNotificationQueue.class);
+    // Floor for re-checking a deferred change, so a zero debounce does not spin on a busy user
+    private static final long MIN_RETRY_MILLIS = 1000;
+
+    private final MicrosoftExcelIntegration microsoftExcelIntegration;
+    private final OneDriveSubscriptionRepository subscriptionRepository;
+    private final long debounceMillis;
+    private final int perUserConcurrency;
+    private final ScheduledThreadPoolExecutor timer;
+    private final ThreadPoolExecutor executor;
+    // Changes waiting for their window to close, with the time of their first notification
+    private final Map<ChangeKey, Instant> pending = new ConcurrentHashMap<>();
+    private final Set<ChangeKey> running = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, Semaphore> userPermits = new ConcurrentHashMap<>();
+
+    private final Counter received;
+    private final Counter coalesced;
+    private final Timer syncLag;
+    private final Timer completedSyncs;
+    private final Timer failedSyncs;
+
+    /**
+     * A changed item of a subscription; {@code itemId} is null when the notification does not name
+     * one, which stands for every file tracked by the subscription.
+     */
+    record ChangeKey(String subscriptionId, String itemId) {
+    }
+
+    public GraphNotificationQueue(MicrosoftExcelIntegration microsoftExcelIntegration,
+                                  OneDriveSubscriptionRepository subscriptionRepository,
+                                  @Value("${gradify.graph.notifications.debounce:PT10S}") Duration debounce,
+                                  @Value("${gradify.graph.notifications.concurrency:4}") int concurrency,
+                                  @Value("${gradify.graph.notifications.per-user-concurrency:1}") int perUserConcurrency,
+                                  MeterRegistry registry) {
+        this.microsoftExcelIntegration = microsoftExcelIntegration;
+        this.subscriptionRepository = subscriptionRepository;
+        this.debounceMillis = Math.max(0, debounce.toMillis());
+        this.perUserConcurrency = Math.max(1, perUserConcurrency);
+
+        this.timer = new ScheduledThreadPoolExecutor(1, daemonThreads("graph-notify-timer-"));
+        this.timer.setRemoveOnCancelPolicy(true);
+        int workers = Math.max(1, concurrency);
+        // Unbounded queue: a key is queued at most once at a time (see pending and running)
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), daemonThreads("graph-notify-"));
+
+        this.received = Counter.builder("gradify.graph.notifications.received")
+                .description("Microsoft Graph change notifications received")
+                .register(registry);
+        this.coalesced = Counter.builder("gradify.graph.notifications.coalesced")
+                .description("Change notifications merged into a change already waiting to be synced")
+                .register(registry);
+        Gauge.builder("gradify.graph.notifications.pending", pending, Map::size)
+                .description("Changes waiting for their debounce window to close")
+                .register(registry);
+        Gauge.builder("gradify.graph.notifications.coalescing.ratio", this, GraphNotificationQueue::coalescingRatio)
+                .description("Share of received change notifications that did not cause a sync of their own")
+                .register(registry);
+        this.syncLag = Timer.builder("gradify.graph.notifications.lag")
+                .description("Delay between the first notification of a change and its sync starting")
+                .register(registry);
+        this.completedSyncs = syncTimer(registry, "completed");
+        this.failedSyncs = syncTimer(registry, "failed");
+        logger.info("Graph change notifications: {} ms debounce, {} concurrent syncs, {} per user",
+                debounceMillis, workers, this.perUserConcurrency);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static Timer syncTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("gradify.graph.notifications.sync")
+                .description("Time to sync the tracked files of one coalesced change")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Queue a change notification, merging it into a waiting change for the same item if there is one.
+     */
+    public void submit(ChangeNotification notification) {
+        received.increment();
+        String itemId = notification.getResourceData() != null ? notification.getResourceData().getId() : null;
+        ChangeKey key = new ChangeKey(notification.getSubscriptionId(), itemId);
+        enqueue(key, Instant.now());
+    }
+
+    private void enqueue(ChangeKey key, Instant firstReceivedAt) {
+        if (pending.putIfAbsent(key, firstReceivedAt) != null) {
+            coalesced.increment();
+            return;
+        }
+        timer.schedule(() -> dispatch(key), debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void dispatch(ChangeKey key) {
+        Instant firstReceivedAt = pending.remove(key);
+        if (firstReceivedAt == null) {
+            return;
+        }
+        executor.execute(() -> sync(key, firstReceivedAt));
+    }
+
+    private void sync(ChangeKey key, Instant firstReceivedAt) {
+        Optional<OneDriveSubscription> subscription;
+        try {
+            subscription = subscriptionRepository.findBySubscriptionId(key.subscriptionId());
+        } catch (Exception e) {
+            logger.error("Error loading subscription {}: {}", key.subscriptionId(), e.getMessage());
+            return;
+        }
+        if (subscription.isEmpty()) {
+            logger.warn("Ignoring change notification for unknown subscription {}", key.subscriptionId());
+            return;
+        }
+
+        int userId = subscription.get().getUserId();
+        Semaphore permits = userPermits.computeIfAbsent(userId, id -> new Semaphore(perUserConcurrency));
+        if (!permits.tryAcquire()) {
+            defer(key, firstReceivedAt);
+            return;
+        }
+        if (!running.add(key)) {
+            permits.release();
+            defer(key, firstReceivedAt);
+            return;
+        }
+
+        long start = System.nanoTime();
+        syncLag.record(Duration.between(firstReceivedAt, Instant.now()));
+        try {
+            microsoftExcelIntegration.processSubscriptionChange(subscription.get(), key.itemId());
+            completedSyncs.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            failedSyncs.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.error("Error syncing changes of subscription {} for user {}: {}",
+                    key.subscriptionId(), userId, e.getMessage(), e);
+        } finally {
+            running.remove(key);
+            permits.release();
+        }
+    }
+
+    /**
+     * Put a change back for another window because its user or the same item is still being synced.
+     * Notifications arriving meanwhile merge into it as usual.
+     */
+    private void defer(ChangeKey key, Instant firstReceivedAt) {
+        if (pending.putIfAbsent(key, firstReceivedAt) != null) {
+            // A newer notification already opened a window for this key
+            return;
+        }
+        timer.schedule(() -> dispatch(key), Math.max(debounceMillis, MIN_RETRY_MILLIS), TimeUnit.MILLISECONDS);
+    }
+
+    private double coalescingRatio() {
+        double total = received.count();
+        return total == 0 ? 0 : coalesced.count() / total;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        executor.shutdownNow();
+    }
+}
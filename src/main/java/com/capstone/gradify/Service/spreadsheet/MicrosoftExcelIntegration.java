@@ -32,7 +32,6 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import com.azure.core.credential.TokenCredential;
@@ -350,26 +349,30 @@ public class MicrosoftExcelIntegration {
         return renewed;
     }
 
-    @Async
-    public void processNotificationAsync(ChangeNotification notification) {
-        try {
-            logger.info("Processing notification: {} for resource: {}",
-                    notification.getChangeType(), notification.getResource());
-
-            // Find subscription in database
-            OneDriveSubscription subscription = subscriptionRepository
-                    .findBySubscriptionId(notification.getSubscriptionId())
-                    .orElseThrow(() -> new RuntimeException("Subscription not found: " + notification.getSubscriptionId()));
-
-            // Find the tracked file associated with this notification
-            List<TrackedFiles> trackedFile = trackedFileService.getTrackedFilesForSubscription(subscription.getId());
-            for(TrackedFiles tf : trackedFile){
-                trackedFile.forEach(trackedfiles -> processModifiedFile(tf, subscription.getUserId()));
+    /**
+     * Sync the tracked files a change notification points at: the file with {@code itemId}, or every
+     * file of the subscription when the notification names no item (drive-root subscriptions do not
+     * say which item changed). A named item the subscription doesn't track is ignored. Only files
+     * modified in OneDrive since their last sync are downloaded.
+     * Called by {@link GraphNotificationQueue} once per coalesced change.
+     */
+    public void processSubscriptionChange(OneDriveSubscription subscription, String itemId) throws Exception {
+        List<TrackedFiles> trackedFiles = trackedFileService.getTrackedFilesForSubscription(subscription.getId());
+        if (itemId != null) {
+            trackedFiles = trackedFiles.stream()
+                    .filter(tf -> itemId.equals(tf.getItemId()))
+                    .collect(Collectors.toList());
+            if (trackedFiles.isEmpty()) {
+                logger.debug("Item {} is not tracked by subscription {}", itemId, subscription.getSubscriptionId());
+                return;
             }
+        }
 
-        } catch (Exception e) {
-            logger.error("Error processing notification: {}", e.getMessage(), e);
+        if (trackedFiles.isEmpty()) {
+            logger.debug("No tracked files for subscription {}", subscription.getSubscriptionId());
+            return;
         }
+        syncSpecificFiles(subscription.getUserId(), trackedFiles);
     }
 
     @Transactional
@@ -416,13 +419,6 @@ public class MicrosoftExcelIntegration {
         List<OneDriveSubscription> activeSubscriptions = subscriptionRepository
                 .findByStatus(SubscriptionStatus.ACTIVE);
 
-        for (OneDriveSubscription subscription : activeSubscriptions) {
-            List<TrackedFiles> trackedFile = trackedFileService.getTrackedFilesForSubscription(subscription.getId());
-            for(TrackedFiles tf : trackedFile){
-                trackedFile.forEach(trackedfiles -> processModifiedFile(tf, subscription.getUserId()));
-            }
-        }
-
         for (OneDriveSubscription subscription : activeSubscriptions) {
             try {
                 syncSubscriptionFiles(subscription);
@@ -468,7 +464,10 @@ public class MicrosoftExcelIntegration {
 
         for (TrackedFiles trackedFile : filesToSync) {
             try {
-                ClassSpreadsheet spreadsheet = trackedFile.getSpreadsheet();
+                // Tracked files are loaded outside a session, so read the spreadsheet itself
+                ClassSpreadsheet spreadsheet = classSpreadsheetRepository
+                        .findById(trackedFile.getSpreadsheet().getId())
+                        .orElseThrow(() -> new RuntimeException("Spreadsheet not found"));
 
                 // Get current file info from OneDrive
                 DriveItem fileItem = client.drives().byDriveId(driveId)
@@ -610,12 +609,13 @@ public class MicrosoftExcelIntegration {
             // Update assessment max values
             spreadsheet.setAssessmentMaxValues(maxAssessmentValues);
 
-            // Update the spreadsheet using your existing service method
-            ClassSpreadsheet updatedSpreadsheet = classSpreadsheetService.updateSpreadsheet(
+            // Only students whose rows changed are written
+            SpreadsheetSyncResult syncResult = classSpreadsheetService.syncSpreadsheet(
                     spreadsheet,
                     records,
                     maxAssessmentValues
             );
+            ClassSpreadsheet updatedSpreadsheet = syncResult.getSpreadsheet();
 
             // Update class entity's students if needed
             if (updatedSpreadsheet.getClassEntity() != null) {
@@ -632,7 +632,7 @@ public class MicrosoftExcelIntegration {
                 classRepository.save(classEntity);
             }
 
-            logger.info("Successfully updated spreadsheet data for: '{}'", spreadsheet.getFileName());
+            logger.info("Successfully updated spreadsheet data for: '{}' ({})", spreadsheet.getFileName(), syncResult);
 
         } catch (Exception e) {
             logger.error("Failed to update spreadsheet data for: '{}': {}", spreadsheet.getFileName(), e.getMessage(), e);
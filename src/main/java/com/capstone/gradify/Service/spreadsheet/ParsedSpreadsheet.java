@@ -0,0 +1,19 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of reading a class record workbook in one pass: the header row, the assessment max values
+ * from row 2 and one map per student row keyed by header.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ParsedSpreadsheet {
+    private final List<String> headers;
+    private final Map<String, Integer> maxAssessmentValues;
+    private final List<Map<String, String>> records;
+}
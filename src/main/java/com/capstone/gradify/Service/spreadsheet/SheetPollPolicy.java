@@ -0,0 +1,61 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import com.capstone.gradify.Entity.records.ClassEntity;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * How long to wait before checking a Google-linked sheet again. A sheet edited within the recent
+ * window is checked at the minimum interval; otherwise the base interval doubles with every check
+ * that found no change, up to a ceiling that is lower for classes in the current term.
+ */
+final class SheetPollPolicy {
+    // 2^MAX_DOUBLINGS times the base interval is far past any sensible ceiling
+    private static final int MAX_DOUBLINGS = 20;
+
+    private final Duration baseInterval;
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final Duration activeTermMaxInterval;
+    private final Duration recentEditWindow;
+
+    SheetPollPolicy(Duration baseInterval, Duration minInterval, Duration maxInterval,
+                    Duration activeTermMaxInterval, Duration recentEditWindow) {
+        this.baseInterval = baseInterval;
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.activeTermMaxInterval = activeTermMaxInterval.compareTo(maxInterval) < 0 ? activeTermMaxInterval : maxInterval;
+        this.recentEditWindow = recentEditWindow;
+    }
+
+    /**
+     * @param unchangedPolls checks in a row that found no change, including the one just made
+     * @param lastChangedAt  when the sheet's content last changed, or {@code null} if unknown
+     * @param activeTerm     whether the sheet's class belongs to the current semester and school year
+     */
+    Duration nextDelay(int unchangedPolls, Instant lastChangedAt, boolean activeTerm, Instant now) {
+        if (lastChangedAt != null && lastChangedAt.isAfter(now.minus(recentEditWindow))) {
+            return minInterval;
+        }
+        Duration ceiling = activeTerm ? activeTermMaxInterval : maxInterval;
+        Duration delay = baseInterval.multipliedBy(1L << Math.min(Math.max(unchangedPolls, 0), MAX_DOUBLINGS));
+        if (delay.compareTo(ceiling) > 0) {
+            delay = ceiling;
+        }
+        return delay.compareTo(minInterval) < 0 ? minInterval : delay;
+    }
+
+    /**
+     * Whether the class is in the given semester and school year. Semester labels are matched by
+     * prefix ("1st" matches "1st Semester") and school years ignore spacing ("2025 - 2026").
+     */
+    static boolean isActiveTerm(ClassEntity classEntity, String currentSemester, String currentSchoolYear) {
+        if (classEntity == null || classEntity.getSemester() == null || classEntity.getSchoolYear() == null) {
+            return false;
+        }
+        String semester = classEntity.getSemester().trim().toLowerCase();
+        String schoolYear = classEntity.getSchoolYear().replaceAll("\\s", "");
+        return semester.startsWith(currentSemester.toLowerCase()) && schoolYear.equals(currentSchoolYear);
+    }
+}
@@ -0,0 +1,53 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket shared by every Google Sheets API call, so concurrent polling, manual syncs and new
+ * links together stay under the per-minute read quota instead of failing with 429s. Callers that
+ * find the bucket empty reserve the next token and sleep until it is due, outside the lock.
+ */
+@Component
+public class SheetsApiRateLimiter {
+    private final double capacity;
+    private final double nanosPerToken;
+    private final Timer throttleWait;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public SheetsApiRateLimiter(@Value("${gradify.sheets.rate-limit.requests-per-minute:60}") int requestsPerMinute,
+                                @Value("${gradify.sheets.rate-limit.burst:10}") int burst,
+                                MeterRegistry registry) {
+        this.capacity = Math.max(1, burst);
+        this.nanosPerToken = (double) TimeUnit.MINUTES.toNanos(1) / Math.max(1, requestsPerMinute);
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+        this.throttleWait = Timer.builder("gradify.sheets.api.throttle.wait")
+                .description("Time Sheets API calls waited for the rate limiter")
+                .register(registry);
+    }
+
+    /**
+     * Take one token, waiting for it if the bucket is empty.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / nanosPerToken);
+            lastRefillNanos = now;
+            // Going negative reserves a future token, so waiters are served in arrival order
+            tokens -= 1;
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens * nanosPerToken);
+        }
+        if (waitNanos > 0) {
+            throttleWait.record(waitNanos, TimeUnit.NANOSECONDS);
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
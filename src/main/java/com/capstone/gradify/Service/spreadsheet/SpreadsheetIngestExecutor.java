@@ -0,0 +1,63 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool for spreadsheet ingest jobs. A fixed number of workers keeps ingest from competing
+ * with requests for JDBC connections, and a bounded queue makes uploads fail fast with
+ * {@link RejectedExecutionException} when the server is saturated instead of piling up.
+ */
+@Component
+public class SpreadsheetIngestExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(SpreadsheetIngestExecutor.class);
+
+    private final ThreadPoolExecutor executor;
+
+    public SpreadsheetIngestExecutor(@Value("${gradify.ingest.pool-size:2}") int poolSize,
+                                     @Value("${gradify.ingest.queue-capacity:20}") int queueCapacity,
+                                     MeterRegistry registry) {
+        int workers = Math.max(1, poolSize);
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "ingest-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("gradify.ingest.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Spreadsheet ingest jobs waiting for a worker")
+                .register(registry);
+        Gauge.builder("gradify.ingest.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Spreadsheet ingest jobs currently running")
+                .register(registry);
+        logger.info("Spreadsheet ingest pool: {} workers, queue capacity {}", workers, queueCapacity);
+    }
+
+    /**
+     * Queue a job, or throw {@link RejectedExecutionException} when every worker is busy and the
+     * queue is full.
+     */
+    public void submit(Runnable job) {
+        executor.execute(job);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,77 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import com.capstone.gradify.dto.response.GradeErrorDetail;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Progress of one asynchronous spreadsheet upload or update, as reported by
+ * {@code GET /api/spreadsheet/jobs/{id}}. Written by the ingest worker and read by request threads.
+ */
+@Getter
+public class SpreadsheetIngestJob {
+
+    public enum Type {
+        UPLOAD, UPDATE
+    }
+
+    public enum Stage {
+        QUEUED, PARSING, VALIDATING, PERSISTING, COMPLETED, FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Type type;
+    private final String fileName;
+    private final Instant createdAt = Instant.now();
+    private volatile Instant updatedAt = createdAt;
+    private volatile Stage stage = Stage.QUEUED;
+    private volatile int rowsParsed;
+    private volatile int rowsValidated;
+    private volatile int rowsPersisted;
+    private volatile List<GradeErrorDetail> validationErrors = List.of();
+    private volatile String message;
+    private volatile Long spreadsheetId;
+    private volatile Integer classId;
+
+    SpreadsheetIngestJob(Type type, String fileName) {
+        this.type = type;
+        this.fileName = fileName;
+    }
+
+    public boolean isFinished() {
+        return stage == Stage.COMPLETED || stage == Stage.FAILED;
+    }
+
+    void moveTo(Stage stage) {
+        this.stage = stage;
+        this.updatedAt = Instant.now();
+    }
+
+    void parsed(int rows) {
+        this.rowsParsed = rows;
+        this.updatedAt = Instant.now();
+    }
+
+    void validated(int rows) {
+        this.rowsValidated = rows;
+        this.updatedAt = Instant.now();
+    }
+
+    void complete(int rowsPersisted, Long spreadsheetId, Integer classId) {
+        this.rowsPersisted = rowsPersisted;
+        this.spreadsheetId = spreadsheetId;
+        this.classId = classId;
+        moveTo(Stage.COMPLETED);
+    }
+
+    void fail(String message, List<GradeErrorDetail> validationErrors) {
+        this.message = message;
+        if (validationErrors != null) {
+            this.validationErrors = List.copyOf(validationErrors);
+        }
+        moveTo(Stage.FAILED);
+    }
+}
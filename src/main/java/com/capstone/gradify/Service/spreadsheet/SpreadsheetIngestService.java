@@ -0,0 +1,291 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import com.capstone.gradify.Entity.records.ClassEntity;
+import com.capstone.gradify.Entity.records.ClassSpreadsheet;
+import com.capstone.gradify.Entity.user.StudentEntity;
+import com.capstone.gradify.Entity.user.TeacherEntity;
+import com.capstone.gradify.Repository.records.ClassRepository;
+import com.capstone.gradify.Repository.records.ClassSpreadsheetRepository;
+import com.capstone.gradify.exceptions.GradeException.GradeValidationException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs spreadsheet uploads and updates as background jobs (parse, validate, persist) so large files
+ * don't hold a servlet thread. The upload is staged to a temp file ({@link StagedUpload}) before
+ * the request returns, because the multipart file is gone once the request completes. Jobs are
+ * kept in memory and dropped an hour after they finish.
+ * <p>
+ * Uploads are idempotent: the staged file is fingerprinted and compared with the stored
+ * {@code dataHash} before any parsing, so retries and re-uploads of the same file do no work.
+ */
+@Service
+@RequiredArgsConstructor
+public class SpreadsheetIngestService {
+    private static final Logger logger = LoggerFactory.getLogger(SpreadsheetIngestService.class);
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(1);
+
+    private final ClassSpreadsheetService classSpreadsheetService;
+    private final ClassRepository classRepository;
+    private final ClassSpreadsheetRepository classSpreadsheetRepository;
+    private final SpreadsheetIngestExecutor ingestExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, SpreadsheetIngestJob> jobs = new ConcurrentHashMap<>();
+
+    public record UploadResult(ClassSpreadsheet spreadsheet, ClassEntity classEntity) {
+    }
+
+    public enum Outcome {
+        /** Same bytes as a stored spreadsheet; nothing was parsed or written. */
+        UNCHANGED,
+        CREATED,
+        UPDATED,
+        /** Handed to a background job. */
+        QUEUED
+    }
+
+    /**
+     * What an upload or update did. {@code job} is set for {@link Outcome#QUEUED}, the spreadsheet
+     * otherwise.
+     */
+    public record IngestResult(Outcome outcome, ClassSpreadsheet spreadsheet, ClassEntity classEntity, SpreadsheetIngestJob job) {
+    }
+
+    /**
+     * Upload a file idempotently. A file with the same fingerprint as one of the teacher's stored
+     * uploads returns that spreadsheet untouched; a different file under the name of an existing
+     * upload updates it through the row diff; anything else creates a new class.
+     *
+     * @throws RejectedExecutionException when {@code async} and the ingest queue is full
+     */
+    public IngestResult upload(MultipartFile file, TeacherEntity teacher, boolean async) throws IOException {
+        String fileName = file.getOriginalFilename();
+        StagedUpload staged = StagedUpload.stage(file);
+        boolean handedOff = false;
+        try {
+            String fingerprint = staged.fingerprint();
+            Optional<ClassSpreadsheet> identical = classSpreadsheetRepository
+                    .findByUploadedBy_UserIdAndDataHash(teacher.getUserId(), fingerprint).stream()
+                    .findFirst();
+            if (identical.isPresent()) {
+                logger.info("Upload of '{}' matches spreadsheet {}; skipping ingest", fileName, identical.get().getId());
+                return unchanged(identical.get());
+            }
+
+            Optional<ClassSpreadsheet> previousUpload = findPreviousUpload(teacher, fileName);
+            if (previousUpload.isPresent()) {
+                Long spreadsheetId = previousUpload.get().getId();
+                logger.info("Upload of '{}' changes spreadsheet {}; applying as an update", fileName, spreadsheetId);
+                if (async) {
+                    SpreadsheetIngestJob job = submitUpdate(staged, spreadsheetId);
+                    handedOff = true;
+                    return queued(job);
+                }
+                return updated(classSpreadsheetService.updateSpreadsheet(spreadsheetId, fileName, parseAndValidate(staged), fingerprint));
+            }
+
+            if (async) {
+                SpreadsheetIngestJob job = submitUpload(staged, teacher);
+                handedOff = true;
+                return queued(job);
+            }
+            UploadResult result = persistUpload(fileName, parseAndValidate(staged), teacher, fingerprint);
+            return new IngestResult(Outcome.CREATED, result.spreadsheet(), result.classEntity(), null);
+        } finally {
+            if (!handedOff) {
+                staged.close();
+            }
+        }
+    }
+
+    /**
+     * Update an existing spreadsheet from a file; a file identical to the one it was last loaded
+     * from is a no-op.
+     *
+     * @throws RejectedExecutionException when {@code async} and the ingest queue is full
+     */
+    public IngestResult update(MultipartFile file, Long spreadsheetId, boolean async) throws IOException {
+        ClassSpreadsheet spreadsheet = classSpreadsheetRepository.findById(spreadsheetId)
+                .orElseThrow(() -> new RuntimeException("Class spreadsheet not found"));
+        StagedUpload staged = StagedUpload.stage(file);
+        boolean handedOff = false;
+        try {
+            String fingerprint = staged.fingerprint();
+            if (fingerprint.equals(spreadsheet.getDataHash())) {
+                logger.info("Update of spreadsheet {} from '{}' has no changes; skipping ingest", spreadsheetId, file.getOriginalFilename());
+                return unchanged(spreadsheet);
+            }
+            if (async) {
+                SpreadsheetIngestJob job = submitUpdate(staged, spreadsheetId);
+                handedOff = true;
+                return queued(job);
+            }
+            return updated(classSpreadsheetService.updateSpreadsheet(
+                    spreadsheetId, file.getOriginalFilename(), parseAndValidate(staged), fingerprint));
+        } finally {
+            if (!handedOff) {
+                staged.close();
+            }
+        }
+    }
+
+    public Optional<SpreadsheetIngestJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * Create the class and its spreadsheet from a parsed, validated upload and enrol its students,
+     * in one transaction so a failure leaves no class without its records. {@code fingerprint} is
+     * the uploaded file's {@link ContentFingerprint#file(java.nio.file.Path)}.
+     */
+    private UploadResult persistUpload(String fileName, ParsedSpreadsheet parsed, TeacherEntity teacher, String fingerprint) {
+        // Called from this class (request thread and ingest jobs), so @Transactional would not apply
+        return transactionTemplate.execute(status -> {
+            ClassEntity classEntity = classSpreadsheetService.createClassEntityFromSpreadsheet(fileName, parsed.getRecords(), teacher, null);
+
+            // Save the ClassEntity
+            classEntity = classRepository.save(classEntity);
+            ClassSpreadsheet savedSpreadsheet = classSpreadsheetService.saveRecord(
+                    fileName,
+                    teacher,
+                    parsed.getRecords(),
+                    classEntity,
+                    parsed.getMaxAssessmentValues(),
+                    fingerprint);
+
+            Set<StudentEntity> students = new HashSet<>();
+            savedSpreadsheet.getGradeRecords().forEach(record -> {
+                if (record.getStudent() != null) {
+                    students.add(record.getStudent());
+                }
+            });
+
+            classEntity.setStudents(students);
+            classEntity = classRepository.save(classEntity);
+            return new UploadResult(savedSpreadsheet, classEntity);
+        });
+    }
+
+    @Scheduled(fixedDelay = 600000) // Every 10 minutes
+    public void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minus(FINISHED_JOB_RETENTION);
+        jobs.values().removeIf(job -> job.isFinished() && job.getUpdatedAt().isBefore(cutoff));
+    }
+
+    private interface PersistStage {
+        void persist(ParsedSpreadsheet parsed);
+    }
+
+    private SpreadsheetIngestJob submitUpload(StagedUpload staged, TeacherEntity teacher) throws IOException {
+        String fileName = staged.getOriginalFilename();
+        String fingerprint = staged.fingerprint();
+        SpreadsheetIngestJob job = new SpreadsheetIngestJob(SpreadsheetIngestJob.Type.UPLOAD, fileName);
+        return submit(job, staged, parsed -> {
+            UploadResult result = persistUpload(fileName, parsed, teacher, fingerprint);
+            job.complete(result.spreadsheet().getGradeRecords().size(), result.spreadsheet().getId(),
+                    result.classEntity().getClassId());
+        });
+    }
+
+    private SpreadsheetIngestJob submitUpdate(StagedUpload staged, Long spreadsheetId) throws IOException {
+        String fileName = staged.getOriginalFilename();
+        String fingerprint = staged.fingerprint();
+        SpreadsheetIngestJob job = new SpreadsheetIngestJob(SpreadsheetIngestJob.Type.UPDATE, fileName);
+        return submit(job, staged, parsed -> {
+            ClassSpreadsheet spreadsheet = classSpreadsheetService.updateSpreadsheet(spreadsheetId, fileName, parsed, fingerprint);
+            job.complete(parsed.getRecords().size(), spreadsheet.getId(),
+                    spreadsheet.getClassEntity() != null ? spreadsheet.getClassEntity().getClassId() : null);
+        });
+    }
+
+    /**
+     * Queue the job; from here on it owns (and deletes) the staged file. On rejection the caller
+     * still owns it.
+     */
+    private SpreadsheetIngestJob submit(SpreadsheetIngestJob job, StagedUpload staged, PersistStage persistStage) {
+        jobs.put(job.getId(), job);
+        try {
+            ingestExecutor.submit(() -> run(job, staged, persistStage));
+        } catch (RuntimeException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        logger.info("Queued {} job {} for '{}'", job.getType(), job.getId(), job.getFileName());
+        return job;
+    }
+
+    private ParsedSpreadsheet parseAndValidate(StagedUpload staged) throws IOException {
+        ParsedSpreadsheet parsed = classSpreadsheetService.parseSpreadsheet(staged.getPath());
+        classSpreadsheetService.preValidateAllRecords(parsed.getRecords(), parsed.getMaxAssessmentValues());
+        return parsed;
+    }
+
+    /**
+     * The teacher's latest plain file upload with this name; cloud-linked spreadsheets are synced
+     * from their source instead.
+     */
+    private Optional<ClassSpreadsheet> findPreviousUpload(TeacherEntity teacher, String fileName) {
+        if (fileName == null) {
+            return Optional.empty();
+        }
+        return classSpreadsheetRepository.findByUploadedBy_UserIdAndFileName(teacher.getUserId(), fileName).stream()
+                .filter(spreadsheet -> spreadsheet.getItemId() == null && !Boolean.TRUE.equals(spreadsheet.getIsGoogleSheets()))
+                .max(Comparator.comparing(ClassSpreadsheet::getId));
+    }
+
+    private static IngestResult unchanged(ClassSpreadsheet spreadsheet) {
+        return new IngestResult(Outcome.UNCHANGED, spreadsheet, spreadsheet.getClassEntity(), null);
+    }
+
+    private static IngestResult updated(ClassSpreadsheet spreadsheet) {
+        return new IngestResult(Outcome.UPDATED, spreadsheet, spreadsheet.getClassEntity(), null);
+    }
+
+    private static IngestResult queued(SpreadsheetIngestJob job) {
+        return new IngestResult(Outcome.QUEUED, null, null, job);
+    }
+
+    private void run(SpreadsheetIngestJob job, StagedUpload staged, PersistStage persistStage) {
+        try {
+            job.moveTo(SpreadsheetIngestJob.Stage.PARSING);
+            ParsedSpreadsheet parsed = classSpreadsheetService.parseSpreadsheet(staged.getPath());
+            job.parsed(parsed.getRecords().size());
+
+            job.moveTo(SpreadsheetIngestJob.Stage.VALIDATING);
+            classSpreadsheetService.preValidateAllRecords(parsed.getRecords(), parsed.getMaxAssessmentValues());
+            job.validated(parsed.getRecords().size());
+
+            job.moveTo(SpreadsheetIngestJob.Stage.PERSISTING);
+            persistStage.persist(parsed);
+            logger.info("{} job {} completed: {} rows", job.getType(), job.getId(), job.getRowsPersisted());
+        } catch (GradeValidationException e) {
+            job.fail(e.getMessage(), e.getValidationErrors());
+            logger.info("{} job {} failed validation: {}", job.getType(), job.getId(), e.getMessage());
+        } catch (Exception e) {
+            job.fail(e.getMessage(), null);
+            logger.error("{} job {} failed: {}", job.getType(), job.getId(), e.getMessage(), e);
+        } finally {
+            try {
+                staged.close();
+            } catch (IOException e) {
+                logger.warn("Could not delete staged upload {}: {}", staged.getPath(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import com.capstone.gradify.Entity.records.ClassSpreadsheet;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Outcome of syncing a spreadsheet with new rows: the saved spreadsheet and how many grade
+ * records were inserted, updated, deleted or left untouched.
+ */
+@Getter
+@RequiredArgsConstructor
+public class SpreadsheetSyncResult {
+    private final ClassSpreadsheet spreadsheet;
+    private final int inserted;
+    private final int updated;
+    private final int deleted;
+    private final int unchanged;
+
+    @Override
+    public String toString() {
+        return String.format("%d inserted, %d updated, %d deleted, %d unchanged", inserted, updated, deleted, unchanged);
+    }
+}
@@ -0,0 +1,67 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * An uploaded spreadsheet written once to a temp file, so readers work from disk through a file
+ * channel instead of buffering the upload on the heap. Outlives the request when handed to an
+ * ingest job; the temp file is deleted on {@link #close()}.
+ */
+public final class StagedUpload implements Closeable {
+    private final Path path;
+    private final String originalFilename;
+    private String fingerprint;
+
+    private StagedUpload(Path path, String originalFilename) {
+        this.path = path;
+        this.originalFilename = originalFilename;
+    }
+
+    /**
+     * Move (or copy) the multipart file to a new temp file. The multipart file can't be read again
+     * afterwards.
+     */
+    public static StagedUpload stage(MultipartFile file) throws IOException {
+        Path path = Files.createTempFile("gradify-upload-", ".tmp");
+        try {
+            file.transferTo(path);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        return new StagedUpload(path, file.getOriginalFilename());
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    /**
+     * {@link ContentFingerprint#file(Path)} of the staged bytes, computed on first use.
+     */
+    public String fingerprint() throws IOException {
+        if (fingerprint == null) {
+            fingerprint = ContentFingerprint.file(path);
+        }
+        return fingerprint;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // A memory-mapped reader can keep the file locked on Windows until it is unmapped
+            path.toFile().deleteOnExit();
+        }
+    }
+}
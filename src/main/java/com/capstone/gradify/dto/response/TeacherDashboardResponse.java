@@ -0,0 +1,19 @@
+package com.capstone.gradify.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TeacherDashboardResponse {
+    private int studentCount;
+    private int atRiskStudentCount;
+    private int topPerformingStudentCount;
+    private Map<String, Integer> gradeDistribution;
+    private List<TeacherAssessmentPerformance> classPerformance;
+}
@@ -0,0 +1,104 @@
+package com.capstone.gradify.Repository.records;
+
+import com.capstone.gradify.Entity.records.ClassEntity;
+import com.capstone.gradify.Entity.records.ClassSpreadsheet;
+import com.capstone.gradify.Entity.records.GradeRecordsEntity;
+import com.capstone.gradify.Entity.user.StudentEntity;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Statement counts for the roster query against a real PostgreSQL, so lazy associations that
+ * would load per row show up as extra statements.
+ */
+@DataJpaTest(properties = {
+		"spring.datasource.driver-class-name=org.postgresql.Driver",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class GradeRecordRepositoryTest {
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@Autowired
+	private GradeRecordRepository gradeRecordRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@ParameterizedTest
+	@ValueSource(ints = {5, 500})
+	void rosterLoadsInOneStatement(int classSize) {
+		int classId = persistClass(classSize);
+		Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		List<GradeRecordsEntity> roster = gradeRecordRepository.findRosterByClassId(classId);
+		// Touch everything the roster reads, so lazy loading would be counted
+		for (GradeRecordsEntity record : roster) {
+			assertNotNull(record.getStudent().getFirstName());
+			assertNotNull(record.getClassRecord().getAssessmentMaxValues());
+			assertNotNull(record.getClassRecord().getClassEntity().getClassName());
+		}
+
+		assertEquals(classSize, roster.size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	private int persistClass(int classSize) {
+		ClassEntity classEntity = new ClassEntity();
+		classEntity.setClassName("Math 101");
+		entityManager.persist(classEntity);
+
+		ClassSpreadsheet spreadsheet = new ClassSpreadsheet();
+		spreadsheet.setFileName("math101.xlsx");
+		spreadsheet.setClassName("Math 101");
+		spreadsheet.setClassEntity(classEntity);
+		spreadsheet.setAssessmentMaxValues(Map.of("Q1", 10));
+		entityManager.persist(spreadsheet);
+
+		for (int i = 0; i < classSize; i++) {
+			StudentEntity student = new StudentEntity();
+			student.setFirstName("First" + i);
+			student.setLastName("Last" + i);
+			student.setEmail("student" + i + "@example.com");
+			student.setStudentNumber("2024-" + i);
+			entityManager.persist(student);
+
+			Map<String, String> grades = new HashMap<>();
+			grades.put("Student Number", "2024-" + i);
+			grades.put("Q1", "9");
+
+			GradeRecordsEntity record = new GradeRecordsEntity();
+			record.setStudentNumber("2024-" + i);
+			record.setStudent(student);
+			record.setClassRecord(spreadsheet);
+			record.setGrades(grades);
+			entityManager.persist(record);
+		}
+		entityManager.flush();
+		entityManager.clear();
+		return classEntity.getClassId();
+	}
+}
@@ -0,0 +1,102 @@
+package com.capstone.gradify.Service.academic;
+
+import com.capstone.gradify.Entity.records.ClassSpreadsheet;
+import com.capstone.gradify.Entity.records.GradeRecordsEntity;
+import com.capstone.gradify.Entity.user.StudentEntity;
+import com.capstone.gradify.Repository.records.ComputedGradeRepository;
+import com.capstone.gradify.Repository.records.ComputedGradeStateRepository;
+import com.capstone.gradify.Repository.records.GradeRecordRepository;
+import com.capstone.gradify.dto.response.StudentTableData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecordsServiceTest {
+
+	private static final int CLASS_ID = 7;
+	private static final String SCHEME = "[{\"name\":\"Quizzes\",\"weight\":40},{\"name\":\"Final Exam\",\"weight\":60}]";
+
+	@Mock
+	private GradeRecordRepository gradeRecordRepository;
+
+	@Mock
+	private ComputedGradeRepository computedGradeRepository;
+
+	@Mock
+	private ComputedGradeStateRepository computedGradeStateRepository;
+
+	@Mock
+	private GradingSchemeService gradingSchemeService;
+
+	@Spy
+	private GradeComputationMetrics gradeComputationMetrics =
+			new GradeComputationMetrics(new SimpleMeterRegistry(), Set.of(), 1.0);
+
+	@InjectMocks
+	private RecordsService recordsService;
+
+	@Test
+	void rosterUsesJoinedStudentData() {
+		List<GradeRecordsEntity> records = records(3);
+		when(computedGradeRepository.findByClassIdWithStudent(CLASS_ID)).thenReturn(List.of());
+		when(gradeRecordRepository.findRosterByClassId(CLASS_ID)).thenReturn(records);
+		when(gradingSchemeService.getCompiledGradingScheme(CLASS_ID)).thenReturn(CompiledGradingScheme.compile(1, SCHEME));
+
+		List<StudentTableData> roster = recordsService.getClassRosterTableData(CLASS_ID);
+
+		assertEquals(3, roster.size());
+		StudentTableData first = roster.get(0);
+		assertEquals("First0 Last0", first.getStudentName());
+		assertEquals(1000, first.getUserId());
+		// Quizzes average 80%, final 90% -> 0.4 * 80 + 0.6 * 90
+		assertEquals(86.0, first.getPercentage(), 0.0001);
+		assertEquals("B", first.getGrade());
+	}
+
+	private List<GradeRecordsEntity> records(int count) {
+		Map<String, Integer> maxValues = new HashMap<>();
+		maxValues.put("Q1", 10);
+		maxValues.put("Q2", 10);
+		maxValues.put("FE", 50);
+
+		ClassSpreadsheet spreadsheet = new ClassSpreadsheet();
+		spreadsheet.setAssessmentMaxValues(maxValues);
+
+		List<GradeRecordsEntity> records = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			StudentEntity student = new StudentEntity();
+			student.setUserId(1000 + i);
+			student.setFirstName("First" + i);
+			student.setLastName("Last" + i);
+			student.setStudentNumber("2024-" + i);
+
+			Map<String, String> grades = new HashMap<>();
+			grades.put("Student Number", "2024-" + i);
+			grades.put("Q1", "7");
+			grades.put("Q2", "9");
+			grades.put("FE", "45");
+
+			GradeRecordsEntity record = new GradeRecordsEntity();
+			record.setStudentNumber("2024-" + i);
+			record.setStudent(student);
+			record.setClassRecord(spreadsheet);
+			record.setGrades(grades);
+			records.add(record);
+		}
+		return records;
+	}
+}
@@ -0,0 +1,165 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClassRecordWorkbookReaderTest {
+
+	private static final BiConsumer<List<String>, List<String>> NO_VALIDATION = (headers, maxRow) -> {
+	};
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void sharedStringsNumbersAndBooleans() throws IOException {
+		Path file = save(new XSSFWorkbook(), "shared.xlsx", ClassRecordWorkbookReaderTest::fillSample);
+
+		List<String> seenMaxRow = new ArrayList<>();
+		ParsedSpreadsheet parsed = ClassRecordWorkbookReader.read(file, (headers, maxRow) -> seenMaxRow.addAll(maxRow));
+
+		assertEquals(List.of("Student Number", "Q1", "Q2", "Passed"), parsed.getHeaders());
+		assertEquals(List.of("", "10", "20", "n/a"), seenMaxRow);
+		assertEquals(Map.of("Q1", 10, "Q2", 20), parsed.getMaxAssessmentValues());
+		assertEquals(List.of(
+				Map.of("Student Number", "2024-001", "Q1", "9.0", "Q2", "absent", "Passed", "true"),
+				Map.of("Student Number", "2024-002", "Q1", "7.5", "Q2", "18.0", "Passed", "false")
+		), parsed.getRecords());
+	}
+
+	@Test
+	void inlineStringsReadLikeSharedStrings() throws IOException {
+		Path shared = save(new XSSFWorkbook(), "shared.xlsx", ClassRecordWorkbookReaderTest::fillSample);
+		// Streaming workbooks without a shared strings table write every string inline
+		Path inline = save(new SXSSFWorkbook(null, 100, false, false), "inline.xlsx", ClassRecordWorkbookReaderTest::fillSample);
+
+		ParsedSpreadsheet fromShared = ClassRecordWorkbookReader.read(shared, NO_VALIDATION);
+		ParsedSpreadsheet fromInline = ClassRecordWorkbookReader.read(inline, NO_VALIDATION);
+
+		assertEquals(fromShared.getHeaders(), fromInline.getHeaders());
+		assertEquals(fromShared.getMaxAssessmentValues(), fromInline.getMaxAssessmentValues());
+		assertEquals(fromShared.getRecords(), fromInline.getRecords());
+	}
+
+	@Test
+	void formulaHeadersKeepTheirTextAndFormulaValuesReadEmpty() throws IOException {
+		Path file = save(new XSSFWorkbook(), "formulas.xlsx", workbook -> {
+			Sheet sheet = workbook.createSheet();
+			Row header = sheet.createRow(0);
+			header.createCell(0).setCellValue("Student Number");
+			header.createCell(1).setCellFormula("\"Q\"&\"1\"");
+			header.createCell(2).setCellValue("Q2");
+			Row max = sheet.createRow(1);
+			max.createCell(1).setCellValue(10);
+			max.createCell(2).setCellFormula("10*2");
+			Row student = sheet.createRow(2);
+			student.createCell(0).setCellValue("2024-001");
+			student.createCell(1).setCellValue(8);
+			student.createCell(2).setCellFormula("B3*2");
+			workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+		});
+
+		ParsedSpreadsheet parsed = ClassRecordWorkbookReader.read(file, NO_VALIDATION);
+
+		assertEquals(List.of("Student Number", "Q1", "Q2"), parsed.getHeaders());
+		assertEquals(Map.of("Q1", 10), parsed.getMaxAssessmentValues());
+		assertEquals(Map.of("Student Number", "2024-001", "Q1", "8.0", "Q2", ""), parsed.getRecords().get(0));
+	}
+
+	@Test
+	void sparseColumnsReadEmptyAndMissingRowsAreSkipped() throws IOException {
+		Path file = save(new XSSFWorkbook(), "sparse.xlsx", workbook -> {
+			Sheet sheet = workbook.createSheet();
+			Row header = sheet.createRow(0);
+			header.createCell(0).setCellValue("Student Number");
+			header.createCell(1).setCellValue("Q1");
+			header.createCell(2).setCellValue("Q2");
+			header.createCell(3).setCellValue("Q3");
+			Row max = sheet.createRow(1);
+			max.createCell(3).setCellValue(30);
+			Row first = sheet.createRow(2);
+			first.createCell(0).setCellValue("2024-001");
+			first.createCell(3).setCellValue(25);
+			// Row 4 is never written
+			Row second = sheet.createRow(4);
+			second.createCell(2).setCellValue(12);
+		});
+
+		ParsedSpreadsheet parsed = ClassRecordWorkbookReader.read(file, NO_VALIDATION);
+
+		assertEquals(Map.of("Q3", 30), parsed.getMaxAssessmentValues());
+		assertEquals(List.of(
+				Map.of("Student Number", "2024-001", "Q1", "", "Q2", "", "Q3", "25.0"),
+				Map.of("Student Number", "", "Q1", "", "Q2", "12.0", "Q3", "")
+		), parsed.getRecords());
+	}
+
+	@Test
+	void streamingXlsxMatchesTheXlsWorkbookModel() throws IOException {
+		Path xlsx = save(new XSSFWorkbook(), "sample.xlsx", ClassRecordWorkbookReaderTest::fillSample);
+		Path xls = save(new HSSFWorkbook(), "sample.xls", ClassRecordWorkbookReaderTest::fillSample);
+
+		ParsedSpreadsheet streamed = ClassRecordWorkbookReader.read(xlsx, NO_VALIDATION);
+		ParsedSpreadsheet modelled = ClassRecordWorkbookReader.read(xls, NO_VALIDATION);
+
+		assertEquals(modelled.getHeaders(), streamed.getHeaders());
+		assertEquals(modelled.getMaxAssessmentValues(), streamed.getMaxAssessmentValues());
+		assertEquals(modelled.getRecords(), streamed.getRecords());
+	}
+
+	private interface SheetWriter {
+		void fill(Workbook workbook);
+	}
+
+	private static void fillSample(Workbook workbook) {
+		Sheet sheet = workbook.createSheet();
+		Row header = sheet.createRow(0);
+		header.createCell(0).setCellValue("Student Number");
+		header.createCell(1).setCellValue("Q1");
+		header.createCell(2).setCellValue("Q2");
+		header.createCell(3).setCellValue("Passed");
+		Row max = sheet.createRow(1);
+		max.createCell(1).setCellValue(10);
+		max.createCell(2).setCellValue(20.9);
+		max.createCell(3).setCellValue(" n/a ");
+		Row first = sheet.createRow(2);
+		first.createCell(0).setCellValue("2024-001");
+		first.createCell(1).setCellValue(9);
+		first.createCell(2).setCellValue("absent");
+		first.createCell(3).setCellValue(true);
+		Row second = sheet.createRow(3);
+		second.createCell(0).setCellValue("2024-002");
+		second.createCell(1).setCellValue(7.5);
+		second.createCell(2).setCellValue(18);
+		second.createCell(3).setCellValue(false);
+	}
+
+	private Path save(Workbook workbook, String name, SheetWriter writer) throws IOException {
+		Path file = tempDir.resolve(name);
+		try (workbook; OutputStream out = Files.newOutputStream(file)) {
+			writer.fill(workbook);
+			workbook.write(out);
+		}
+		if (workbook instanceof SXSSFWorkbook streaming) {
+			streaming.dispose();
+		}
+		return file;
+	}
+}
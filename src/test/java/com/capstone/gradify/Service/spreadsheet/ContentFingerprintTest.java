@@ -0,0 +1,84 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentFingerprintTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void rowIsIndependentOfColumnOrder() {
+		Map<String, String> forward = new LinkedHashMap<>();
+		forward.put("Student Number", "2024-001");
+		forward.put("Q1", "9");
+		Map<String, String> backward = new LinkedHashMap<>();
+		backward.put("Q1", "9");
+		backward.put("Student Number", "2024-001");
+
+		String fingerprint = ContentFingerprint.row(forward);
+		assertEquals(fingerprint, ContentFingerprint.row(backward));
+		assertTrue(fingerprint.matches("[0-9a-f]{32}"));
+	}
+
+	@Test
+	void rowSeparatesFieldsAndNullFromEmpty() {
+		assertNotEquals(ContentFingerprint.row(Map.of("Q1", "10")), ContentFingerprint.row(Map.of("Q11", "0")));
+		assertNotEquals(ContentFingerprint.row(Map.of("Q1", "9")), ContentFingerprint.row(Map.of("Q1", "8")));
+
+		Map<String, String> nullGrade = new HashMap<>();
+		nullGrade.put("Q1", null);
+		assertNotEquals(ContentFingerprint.row(nullGrade), ContentFingerprint.row(Map.of("Q1", "")));
+		assertNotEquals(ContentFingerprint.row(null), ContentFingerprint.row(Map.of()));
+	}
+
+	@Test
+	void rowsIgnoreRowOrderButNotDuplicates() {
+		Map<String, String> first = Map.of("Student Number", "2024-001", "Q1", "9");
+		Map<String, String> second = Map.of("Student Number", "2024-002", "Q1", "7");
+
+		assertEquals(ContentFingerprint.rows(List.of(first, second)), ContentFingerprint.rows(List.of(second, first)));
+		assertNotEquals(ContentFingerprint.rows(List.of(first)), ContentFingerprint.rows(List.of(first, first)));
+		assertNotEquals(ContentFingerprint.rows(List.of(first, second)),
+				ContentFingerprint.rows(List.of(first, Map.of("Student Number", "2024-002", "Q1", "8"))));
+	}
+
+	@Test
+	void fileIsTheTruncatedSha256OfItsBytes() throws IOException, NoSuchAlgorithmException {
+		// Larger than the read buffer, so the digest is fed across several reads
+		byte[] content = new byte[200_000];
+		new Random(7).nextBytes(content);
+		Path file = Files.write(tempDir.resolve("upload.xlsx"), content);
+		Path empty = Files.write(tempDir.resolve("empty.csv"), new byte[0]);
+
+		assertEquals(truncatedSha256(content), ContentFingerprint.file(file));
+		assertEquals(truncatedSha256(new byte[0]), ContentFingerprint.file(empty));
+
+		content[content.length - 1]++;
+		Path changed = Files.write(tempDir.resolve("changed.xlsx"), content);
+		assertNotEquals(ContentFingerprint.file(file), ContentFingerprint.file(changed));
+	}
+
+	private static String truncatedSha256(byte[] content) throws NoSuchAlgorithmException {
+		byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+		return HexFormat.of().formatHex(Arrays.copyOf(hash, 16));
+	}
+}
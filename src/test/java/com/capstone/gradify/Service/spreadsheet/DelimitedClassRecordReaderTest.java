@@ -0,0 +1,201 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DelimitedClassRecordReaderTest {
+
+	private static final BiConsumer<List<String>, List<String>> NO_VALIDATION = (headers, maxRow) -> {
+	};
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void quotedFieldsKeepDelimitersAndLineBreaks() throws IOException {
+		ParsedSpreadsheet parsed = read("Student Number,First Name,Last Name,Q1\n"
+				+ ",,,10\n"
+				+ "2024-001,\"Cruz, Ana\",\"Dela\nCruz\",9\n", ',');
+
+		assertEquals(1, parsed.getRecords().size());
+		Map<String, String> record = parsed.getRecords().get(0);
+		assertEquals("Cruz, Ana", record.get("First Name"));
+		assertEquals("Dela\nCruz", record.get("Last Name"));
+		assertEquals("9", record.get("Q1"));
+	}
+
+	@Test
+	void doubledQuotesAreUnescaped() throws IOException {
+		ParsedSpreadsheet parsed = read("Student Number,Remarks\n,\n2024-001,\"said \"\"late\"\"\"\n", ',');
+
+		assertEquals("said \"late\"", parsed.getRecords().get(0).get("Remarks"));
+	}
+
+	@Test
+	void byteOrderMarkIsSkipped() throws IOException {
+		byte[] text = "Student Number,Q1\n,10\n2024-001,9\n".getBytes(StandardCharsets.UTF_8);
+		byte[] content = new byte[text.length + 3];
+		content[0] = (byte) 0xEF;
+		content[1] = (byte) 0xBB;
+		content[2] = (byte) 0xBF;
+		System.arraycopy(text, 0, content, 3, text.length);
+		Path file = tempDir.resolve("bom.csv");
+		Files.write(file, content);
+
+		ParsedSpreadsheet parsed = DelimitedClassRecordReader.read(file, ',', NO_VALIDATION);
+
+		assertEquals(List.of("Student Number", "Q1"), parsed.getHeaders());
+		assertEquals("2024-001", parsed.getRecords().get(0).get("Student Number"));
+	}
+
+	@Test
+	void crlfAndBareCrLineEndsAndBlankLines() throws IOException {
+		ParsedSpreadsheet crlf = read("Student Number,Q1\r\n,10\r\n\r\n2024-001,9\r\n2024-002,8\r\n", ',');
+		ParsedSpreadsheet cr = read("Student Number,Q1\r,10\r\r2024-001,9\r2024-002,8", ',');
+
+		for (ParsedSpreadsheet parsed : List.of(crlf, cr)) {
+			assertEquals(Map.of("Q1", 10), parsed.getMaxAssessmentValues());
+			assertEquals(2, parsed.getRecords().size());
+			assertEquals("9", parsed.getRecords().get(0).get("Q1"));
+			assertEquals("2024-002", parsed.getRecords().get(1).get("Student Number"));
+		}
+	}
+
+	@Test
+	void shortRowsArePaddedAndTrailingEmptyHeadersDropped() throws IOException {
+		ParsedSpreadsheet parsed = read("Student Number\tQ1\tQ2\t\t\n\t10\n2024-001\n", '\t');
+
+		assertEquals(List.of("Student Number", "Q1", "Q2"), parsed.getHeaders());
+		assertEquals(Map.of("Q1", 10), parsed.getMaxAssessmentValues());
+		assertEquals(Map.of("Student Number", "2024-001", "Q1", "", "Q2", ""), parsed.getRecords().get(0));
+	}
+
+	@Test
+	void validatorSeesHeadersAndTruncatedMaxValuesBeforeAnyRecord() throws IOException {
+		List<String> seenHeaders = new ArrayList<>();
+		List<String> seenMaxRow = new ArrayList<>();
+		Path file = write("Student Number;Q1;Q2;Q3\n;12.7; n/a ;\n2024-001;9;8;7\n");
+
+		ParsedSpreadsheet parsed = DelimitedClassRecordReader.read(file, ';', (headers, maxRow) -> {
+			seenHeaders.addAll(headers);
+			seenMaxRow.addAll(maxRow);
+		});
+
+		assertEquals(List.of("Student Number", "Q1", "Q2", "Q3"), seenHeaders);
+		assertEquals(List.of("", "12", "n/a", ""), seenMaxRow);
+		assertEquals(Map.of("Q1", 12), parsed.getMaxAssessmentValues());
+
+		Path invalid = write("Student Number,Q1\n,10\n2024-001,9\n");
+		assertThrows(IllegalStateException.class, () -> DelimitedClassRecordReader.read(invalid, ',', (headers, maxRow) -> {
+			throw new IllegalStateException("rejected");
+		}));
+	}
+
+	@Test
+	void sniffingPicksTheMostFrequentDelimiterOutsideQuotes() throws IOException {
+		assertEquals(',', DelimitedClassRecordReader.sniffDelimiter(write("Student Number,First Name,Q1\n,,10\n")));
+		assertEquals('\t', DelimitedClassRecordReader.sniffDelimiter(write("Student Number\tFirst Name, Middle\tQ1\n")));
+		assertEquals(';', DelimitedClassRecordReader.sniffDelimiter(write("Student Number;\"Name, full, formal\";Q1\n")));
+		// Only the header row counts
+		assertEquals(',', DelimitedClassRecordReader.sniffDelimiter(write("Student Number,Q1\n;;;;\n")));
+	}
+
+	@Test
+	void sniffingRejectsWorkbooksBinaryAndUndelimitedText() throws IOException {
+		assertNull(DelimitedClassRecordReader.sniffDelimiter(write("Student Number\n2024-001\n")));
+
+		Path binary = tempDir.resolve("binary.dat");
+		Files.write(binary, new byte[]{'a', ',', 0, 'b'});
+		assertNull(DelimitedClassRecordReader.sniffDelimiter(binary));
+
+		Path workbook = tempDir.resolve("sheet.xlsx");
+		try (XSSFWorkbook xlsx = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(workbook)) {
+			xlsx.createSheet().createRow(0).createCell(0).setCellValue("Student Number,Q1");
+			xlsx.write(out);
+		}
+		assertNull(DelimitedClassRecordReader.sniffDelimiter(workbook));
+	}
+
+	@Test
+	void csvAndXlsxReadTheSameSheetIdentically() throws IOException {
+		String[][] sheet = {
+				{"Student Number", "First Name", "Last Name", "Q1", "Quiz 2", "Final Exam"},
+				{"", "", "", "10", "20", "100"},
+				{"2024-001", "Ana", "Cruz, Jr.", "9", "18", "87"},
+				{"2024-002", "Ben \"B\"", "Reyes", "absent", "", "74.5"},
+				{"2024-003", "Carla", "Santos", "", "20", ""},
+		};
+
+		StringBuilder csv = new StringBuilder();
+		for (String[] row : sheet) {
+			for (int i = 0; i < row.length; i++) {
+				if (i > 0) csv.append(',');
+				String value = row[i];
+				csv.append(value.contains(",") || value.contains("\"")
+						? "\"" + value.replace("\"", "\"\"") + "\"" : value);
+			}
+			csv.append("\r\n");
+		}
+		Path csvFile = write(csv.toString());
+
+		// Grades in a text-formatted column, max values as numbers, blank cells left out
+		Path xlsxFile = tempDir.resolve("sheet.xlsx");
+		try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(xlsxFile)) {
+			Sheet xlsxSheet = workbook.createSheet();
+			for (int r = 0; r < sheet.length; r++) {
+				Row row = xlsxSheet.createRow(r);
+				for (int c = 0; c < sheet[r].length; c++) {
+					String value = sheet[r][c];
+					if (value.isEmpty()) {
+						continue;
+					}
+					if (r == 1) {
+						row.createCell(c).setCellValue(Double.parseDouble(value));
+					} else {
+						row.createCell(c).setCellValue(value);
+					}
+				}
+			}
+			workbook.write(out);
+		}
+
+		Character delimiter = DelimitedClassRecordReader.sniffDelimiter(csvFile);
+		assertEquals(',', delimiter);
+		assertNull(DelimitedClassRecordReader.sniffDelimiter(xlsxFile));
+		ParsedSpreadsheet fromCsv = DelimitedClassRecordReader.read(csvFile, delimiter, NO_VALIDATION);
+		ParsedSpreadsheet fromXlsx = ClassRecordWorkbookReader.read(xlsxFile, NO_VALIDATION);
+
+		assertEquals(fromXlsx.getHeaders(), fromCsv.getHeaders());
+		assertEquals(Map.of("Q1", 10, "Quiz 2", 20, "Final Exam", 100), fromCsv.getMaxAssessmentValues());
+		assertEquals(fromXlsx.getMaxAssessmentValues(), fromCsv.getMaxAssessmentValues());
+		assertEquals(3, fromCsv.getRecords().size());
+		assertEquals(fromXlsx.getRecords(), fromCsv.getRecords());
+		assertTrue(fromCsv.getRecords().get(2).get("Q1").isEmpty());
+	}
+
+	private ParsedSpreadsheet read(String content, char delimiter) throws IOException {
+		return DelimitedClassRecordReader.read(write(content), delimiter, NO_VALIDATION);
+	}
+
+	private Path write(String content) throws IOException {
+		return Files.writeString(Files.createTempFile(tempDir, "sheet-", ".csv"), content, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,157 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import com.capstone.gradify.Entity.records.ClassSpreadsheet;
+import com.capstone.gradify.Repository.records.ClassRepository;
+import com.capstone.gradify.Repository.records.ClassSpreadsheetRepository;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The Drive revision pre-check, run against a stubbed transport that serves the Drive and Sheets
+ * endpoints locally.
+ */
+@ExtendWith(MockitoExtension.class)
+class GoogleSpreadsheetServiceTest {
+
+	private static final long SPREADSHEET_ID = 1L;
+	private static final String SHEET_ID = "sheet123";
+	private static final String DRIVE_FILE = "{\"modifiedTime\":\"2025-01-02T08:00:00.000Z\",\"version\":\"43\"}";
+	private static final String REVISION = "2025-01-02T08:00:00.000Z/43";
+	private static final String SPREADSHEET = "{\"spreadsheetId\":\"sheet123\",\"sheets\":[{\"properties\":{\"title\":\"Grades\"}}]}";
+	private static final String VALUES = "{\"range\":\"Grades\",\"values\":["
+			+ "[\"Student Number\",\"First Name\",\"Last Name\",\"Q1\"],"
+			+ "[\"\",\"\",\"\",\"10\"],"
+			+ "[\"2024-001\",\"Ana\",\"Cruz\",\"9\"]]}";
+
+	@Mock
+	private ClassSpreadsheetService classSpreadsheetService;
+
+	@Mock
+	private ClassSpreadsheetRepository classSpreadsheetRepository;
+
+	@Mock
+	private ClassRepository classRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private final List<String> requestedUrls = new ArrayList<>();
+	private final Map<String, MockLowLevelHttpResponse> responses = new LinkedHashMap<>();
+	private ClassSpreadsheet spreadsheet;
+	private GoogleSpreadsheetService googleSpreadsheetService;
+
+	@BeforeEach
+	void setUp() {
+		MockHttpTransport transport = new MockHttpTransport() {
+			@Override
+			public LowLevelHttpRequest buildRequest(String method, String url) {
+				requestedUrls.add(url);
+				return new MockLowLevelHttpRequest(url) {
+					@Override
+					public LowLevelHttpResponse execute() {
+						return responses.entrySet().stream()
+								.filter(entry -> url.contains(entry.getKey()))
+								.map(Map.Entry::getValue)
+								.findFirst()
+								.orElseGet(() -> new MockLowLevelHttpResponse().setStatusCode(404));
+					}
+				};
+			}
+		};
+
+		googleSpreadsheetService = new GoogleSpreadsheetService(
+				classSpreadsheetService,
+				classSpreadsheetRepository,
+				classRepository,
+				new GoogleSheetsClient(transport),
+				new SheetsApiRateLimiter(6000, 100, new SimpleMeterRegistry()),
+				new TransactionTemplate(transactionManager));
+
+		spreadsheet = new ClassSpreadsheet();
+		spreadsheet.setId(SPREADSHEET_ID);
+		spreadsheet.setFileName("Math 101.sheet");
+		spreadsheet.setIsGoogleSheets(true);
+		spreadsheet.setSharedLink("https://docs.google.com/spreadsheets/d/" + SHEET_ID + "/edit");
+		when(classSpreadsheetRepository.findById(SPREADSHEET_ID)).thenReturn(Optional.of(spreadsheet));
+	}
+
+	@Test
+	void unmodifiedSheetIsNotDownloaded() throws Exception {
+		spreadsheet.setSourceRevision(REVISION);
+		respond("/drive/v3/files/" + SHEET_ID, 200, DRIVE_FILE);
+
+		assertFalse(googleSpreadsheetService.checkForUpdates(SPREADSHEET_ID));
+
+		assertEquals(1, requestedUrls.size());
+		assertTrue(requestedUrls.get(0).contains("/drive/v3/files/" + SHEET_ID));
+		verify(classSpreadsheetRepository, never()).updateSourceRevision(any(), any());
+	}
+
+	@Test
+	void modifiedSheetIsDownloadedAndItsRevisionRecorded() throws Exception {
+		spreadsheet.setSourceRevision("2025-01-01T08:00:00.000Z/42");
+		// Same grades as stored: only formatting changed, so nothing is written
+		spreadsheet.setDataHash(ContentFingerprint.rows(List.of(Map.of(
+				"Student Number", "2024-001", "First Name", "Ana", "Last Name", "Cruz", "Q1", "9"))));
+		when(classSpreadsheetService.getStudentRecordCount(spreadsheet)).thenReturn(1);
+		respond("/drive/v3/files/" + SHEET_ID, 200, DRIVE_FILE);
+		respond("/values/", 200, VALUES);
+		respond("/v4/spreadsheets/" + SHEET_ID, 200, SPREADSHEET);
+
+		assertFalse(googleSpreadsheetService.checkForUpdates(SPREADSHEET_ID));
+
+		assertEquals(3, requestedUrls.size());
+		assertTrue(requestedUrls.stream().anyMatch(url -> url.contains("/values/")));
+		verify(classSpreadsheetRepository).updateSourceRevision(SPREADSHEET_ID, REVISION);
+		verify(classSpreadsheetService, never()).syncSpreadsheet(any(), any(), any());
+	}
+
+	@Test
+	void sheetIsDownloadedWhenDriveMetadataIsUnavailable() throws Exception {
+		spreadsheet.setSourceRevision(REVISION);
+		spreadsheet.setDataHash(ContentFingerprint.rows(List.of(Map.of(
+				"Student Number", "2024-001", "First Name", "Ana", "Last Name", "Cruz", "Q1", "9"))));
+		when(classSpreadsheetService.getStudentRecordCount(spreadsheet)).thenReturn(1);
+		respond("/drive/v3/files/" + SHEET_ID, 403, "{\"error\":{\"code\":403,\"message\":\"Drive API disabled\"}}");
+		respond("/values/", 200, VALUES);
+		respond("/v4/spreadsheets/" + SHEET_ID, 200, SPREADSHEET);
+
+		assertFalse(googleSpreadsheetService.checkForUpdates(SPREADSHEET_ID));
+
+		assertTrue(requestedUrls.stream().anyMatch(url -> url.contains("/values/")));
+		verify(classSpreadsheetRepository, never()).updateSourceRevision(any(), any());
+	}
+
+	private void respond(String urlPart, int status, String json) {
+		responses.put(urlPart, new MockLowLevelHttpResponse()
+				.setStatusCode(status)
+				.setContentType(Json.MEDIA_TYPE)
+				.setContent(json));
+	}
+}
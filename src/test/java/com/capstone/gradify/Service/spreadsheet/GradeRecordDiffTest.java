@@ -0,0 +1,128 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import com.capstone.gradify.Entity.records.GradeRecordsEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GradeRecordDiffTest {
+
+	@Test
+	void sortsRowsIntoInsertsUpdatesDeletesAndUnchanged() {
+		GradeRecordsEntity unchanged = stored("2024-001", "9");
+		GradeRecordsEntity changed = stored("2024-002", "5");
+		GradeRecordsEntity removed = stored("2024-003", "7");
+
+		GradeRecordDiff diff = GradeRecordDiff.compute(List.of(unchanged, changed, removed),
+				List.of(row("2024-001", "9"), row("2024-002", "8"), row("2024-004", "10")),
+				GradeRecordDiff.REPLACE_ROW, true);
+
+		assertEquals(List.of(row("2024-004", "10")), diff.getInserts());
+		assertEquals(1, diff.getUpdates().size());
+		GradeRecordDiff.Update update = diff.getUpdates().get(0);
+		assertSame(changed, update.record());
+		assertEquals(row("2024-002", "8"), update.grades());
+		assertEquals(ContentFingerprint.row(row("2024-002", "8")), update.rowHash());
+		assertEquals(List.of(removed), diff.getDeletes());
+		assertEquals(List.of(unchanged), diff.getUnchanged());
+		assertEquals(0, diff.getSkipped());
+	}
+
+	@Test
+	void missingStudentsAreKeptWhenDeletesAreOff() {
+		GradeRecordsEntity removed = stored("2024-003", "7");
+
+		GradeRecordDiff diff = GradeRecordDiff.compute(List.of(removed), List.of(), GradeRecordDiff.REPLACE_ROW, false);
+
+		assertTrue(diff.getDeletes().isEmpty());
+		assertEquals(List.of(removed), diff.getUnchanged());
+	}
+
+	@Test
+	void recordsWithoutStoredRowHashAreComparedByGrades() {
+		GradeRecordsEntity legacy = stored("2024-001", "9");
+		legacy.setRowHash(null);
+
+		GradeRecordDiff diff = GradeRecordDiff.compute(List.of(legacy), List.of(row("2024-001", "9")),
+				GradeRecordDiff.REPLACE_ROW, true);
+
+		assertEquals(List.of(legacy), diff.getUnchanged());
+		assertTrue(diff.getUpdates().isEmpty());
+	}
+
+	@Test
+	void duplicateAndUnnumberedStoredRecordsNeverMatch() {
+		GradeRecordsEntity first = stored("2024-001", "9");
+		GradeRecordsEntity duplicate = stored("2024-001", "4");
+		GradeRecordsEntity unnumbered = stored(null, "6");
+
+		GradeRecordDiff deleting = GradeRecordDiff.compute(List.of(first, duplicate, unnumbered),
+				List.of(row("2024-001", "9")), GradeRecordDiff.REPLACE_ROW, true);
+		assertEquals(List.of(first), deleting.getUnchanged());
+		assertEquals(List.of(duplicate, unnumbered), deleting.getDeletes());
+
+		GradeRecordDiff keeping = GradeRecordDiff.compute(List.of(first, duplicate, unnumbered),
+				List.of(row("2024-001", "9")), GradeRecordDiff.REPLACE_ROW, false);
+		assertTrue(keeping.getDeletes().isEmpty());
+		assertEquals(3, keeping.getUnchanged().size());
+	}
+
+	@Test
+	void incomingRowsWithoutStudentNumberAreSkippedAndLastDuplicateWins() {
+		Map<String, String> blank = row(" ", "3");
+		GradeRecordDiff diff = GradeRecordDiff.compute(new ArrayList<>(),
+				List.of(blank, row("2024-001", "5"), row("2024-001", "6")), GradeRecordDiff.REPLACE_ROW, true);
+
+		assertEquals(1, diff.getSkipped());
+		assertEquals(List.of(row("2024-001", "6")), diff.getInserts());
+	}
+
+	@Test
+	void mergeNonEmptyKeepsStoredGradesForBlankCells() {
+		GradeRecordsEntity record = stored("2024-001", "9");
+		record.getGrades().put("Q2", "4");
+		record.setRowHash(ContentFingerprint.row(record.getGrades()));
+
+		Map<String, String> incoming = row("2024-001", "");
+		incoming.put("Q2", "7");
+		GradeRecordDiff diff = GradeRecordDiff.compute(List.of(record), List.of(incoming),
+				GradeRecordDiff.MERGE_NON_EMPTY, false);
+
+		assertEquals(1, diff.getUpdates().size());
+		Map<String, String> merged = diff.getUpdates().get(0).grades();
+		assertEquals("9", merged.get("Q1"));
+		assertEquals("7", merged.get("Q2"));
+	}
+
+	@Test
+	void mergeNonEmptyWithOnlyBlankCellsIsUnchanged() {
+		GradeRecordsEntity record = stored("2024-001", "9");
+
+		GradeRecordDiff diff = GradeRecordDiff.compute(List.of(record), List.of(row("2024-001", "")),
+				GradeRecordDiff.MERGE_NON_EMPTY, false);
+
+		assertEquals(List.of(record), diff.getUnchanged());
+	}
+
+	private static GradeRecordsEntity stored(String studentNumber, String q1) {
+		GradeRecordsEntity record = new GradeRecordsEntity();
+		record.setStudentNumber(studentNumber);
+		record.setGrades(row(studentNumber, q1));
+		record.setRowHash(ContentFingerprint.row(record.getGrades()));
+		return record;
+	}
+
+	private static Map<String, String> row(String studentNumber, String q1) {
+		Map<String, String> row = new HashMap<>();
+		row.put("Student Number", studentNumber);
+		row.put("Q1", q1);
+		return row;
+	}
+}
@@ -0,0 +1,98 @@
+package com.capstone.gradify.Service.spreadsheet;
+
+import com.capstone.gradify.Entity.subscription.OneDriveSubscription;
+import com.capstone.gradify.Repository.subscription.OneDriveSubscriptionRepository;
+import com.capstone.gradify.dto.response.ChangeNotification;
+import com.capstone.gradify.dto.response.ResourceData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Coalescing of bursts of Graph change notifications into one sync per changed item.
+ */
+@ExtendWith(MockitoExtension.class)
+class GraphNotificationQueueTest {
+
+	private static final String SUBSCRIPTION_ID = "sub-1";
+
+	@Mock
+	private MicrosoftExcelIntegration microsoftExcelIntegration;
+
+	@Mock
+	private OneDriveSubscriptionRepository subscriptionRepository;
+
+	private SimpleMeterRegistry registry;
+	private GraphNotificationQueue queue;
+	private OneDriveSubscription subscription;
+
+	@BeforeEach
+	void setUp() {
+		registry = new SimpleMeterRegistry();
+		queue = new GraphNotificationQueue(microsoftExcelIntegration, subscriptionRepository,
+				Duration.ofMillis(100), 2, 1, registry);
+
+		subscription = new OneDriveSubscription();
+		subscription.setId(7L);
+		subscription.setSubscriptionId(SUBSCRIPTION_ID);
+		subscription.setUserId(42);
+		when(subscriptionRepository.findBySubscriptionId(SUBSCRIPTION_ID)).thenReturn(Optional.of(subscription));
+	}
+
+	@AfterEach
+	void tearDown() {
+		queue.shutdown();
+	}
+
+	@Test
+	void burstForSameSubscriptionIsSyncedOnce() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			queue.submit(notification(null));
+		}
+
+		verify(microsoftExcelIntegration, timeout(2000)).processSubscriptionChange(eq(subscription), isNull());
+		verify(microsoftExcelIntegration, after(300).times(1)).processSubscriptionChange(any(), any());
+		assertEquals(5, registry.get("gradify.graph.notifications.received").counter().count());
+		assertEquals(4, registry.get("gradify.graph.notifications.coalesced").counter().count());
+		assertEquals(0.8, registry.get("gradify.graph.notifications.coalescing.ratio").gauge().value(), 1e-9);
+	}
+
+	@Test
+	void differentItemsAreSyncedSeparately() throws Exception {
+		queue.submit(notification("item-a"));
+		queue.submit(notification("item-b"));
+		queue.submit(notification("item-a"));
+
+		verify(microsoftExcelIntegration, timeout(3000)).processSubscriptionChange(subscription, "item-a");
+		verify(microsoftExcelIntegration, timeout(3000)).processSubscriptionChange(subscription, "item-b");
+		verify(microsoftExcelIntegration, after(300).times(2)).processSubscriptionChange(any(), any());
+		assertEquals(1, registry.get("gradify.graph.notifications.coalesced").counter().count());
+	}
+
+	private static ChangeNotification notification(String itemId) {
+		ChangeNotification notification = new ChangeNotification();
+		notification.setSubscriptionId(SUBSCRIPTION_ID);
+		notification.setChangeType("updated");
+		if (itemId != null) {
+			notification.setResourceData(new ResourceData(null, null, itemId));
+		}
+		return notification;
+	}
+}